@@ -1,15 +1,25 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
+import ru.practicum.shareit.user.CurrentUser;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,43 +29,146 @@ import java.util.stream.Collectors;
 public class BookingController {
 
     public static final String HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String STATE_COUNTS_HEADER = "X-State-Counts";
+    public static final int BATCH_LIMIT = 1000;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
 
     private final BookingService service;
+    private final ObjectMapper objectMapper;
+    private final BookingEventBus eventBus;
 
     @PostMapping
     public BookingDtoResponse createBooking(@Valid @RequestBody BookingDtoRequest requestBooking,
-                                            @RequestHeader(HEADER) Long userId) {
-        return BookingMapper.toResponse(service.createBooking(requestBooking, userId));
+                                            CurrentUser currentUser) {
+        return BookingMapper.toResponse(service.createBooking(requestBooking, currentUser.getUser()));
+    }
+
+    @PostMapping("/batch")
+    public List<BookingDtoResponse> createBookings(@RequestBody @Size(min = 1, max = BATCH_LIMIT) List<@Valid BookingDtoRequest> requestBookings,
+                                                   CurrentUser currentUser) {
+        return service.createBookings(requestBookings, currentUser.getUser()).stream()
+                .map(BookingMapper::toResponse)
+                .collect(Collectors.toList());
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingDtoResponse changeStatus(@PathVariable Long bookingId, @RequestHeader(HEADER) Long userId,
+    public BookingDtoResponse changeStatus(@PathVariable Long bookingId, CurrentUser currentUser,
                                            @RequestParam(name = "approved") Boolean approved) {
-        return BookingMapper.toResponse(service.changeStatus(bookingId, userId, approved));
+        return BookingMapper.toResponse(service.changeStatus(bookingId, currentUser.getId(), approved));
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDtoResponse getBooking(@PathVariable Long bookingId, @RequestHeader(HEADER) Long userId) {
-        return BookingMapper.toResponse(service.getBooking(bookingId, userId));
+    public BookingDtoResponse getBooking(@PathVariable Long bookingId, CurrentUser currentUser) {
+        return BookingMapper.toResponse(service.getBooking(bookingId, currentUser.getId()));
     }
 
     @GetMapping
-    public List<BookingDtoResponse> getAllBookingsByUser(@RequestHeader(HEADER) Long userId,
-                                                         @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                         @RequestParam(defaultValue = "1") @Min(1) Integer from,
-                                                         @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
-        return service.getAllBookingsByUser(userId, state, from, size).stream()
-                .map(BookingMapper::toResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsByUser(CurrentUser currentUser,
+                                                                         @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                         @RequestParam(defaultValue = "1") @Min(1) Integer from,
+                                                                         @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size,
+                                                                         @RequestParam(name = "counts", defaultValue = "false") boolean counts) {
+        return toCountedPage(BookingRole.BOOKER, currentUser.getId(), state,
+                service.getAllBookingsByUser(currentUser.getId(), state, from, size), from / size * size, size, counts);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getAllBookingsItemsByOwner(@RequestHeader(HEADER) Long userId,
-                                                               @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                               @RequestParam(defaultValue = "1") @Min(1) Integer from,
-                                                               @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
-        return service.getAllBookingsItemsByOwner(userId, state, from, size).stream()
-                .map(BookingMapper::toResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsItemsByOwner(CurrentUser currentUser,
+                                                                               @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                               @RequestParam(defaultValue = "1") @Min(1) Integer from,
+                                                                               @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size,
+                                                                               @RequestParam(name = "counts", defaultValue = "false") boolean counts) {
+        return toCountedPage(BookingRole.OWNER, currentUser.getId(), state,
+                service.getAllBookingsItemsByOwner(currentUser.getId(), state, from, size), from / size * size, size, counts);
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsByUserAfter(CurrentUser currentUser,
+                                                                              @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                              @RequestParam(name = "after") String after,
+                                                                              @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
+        return toCursorPage(service.getBookingsByUserAfter(currentUser.getId(), state, BookingCursor.decode(after), size), size);
+    }
+
+    @GetMapping("/owner/summary")
+    public OwnerSummaryDto getOwnerSummary(CurrentUser currentUser) {
+        return service.getOwnerSummary(currentUser.getId());
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsItemsByOwnerAfter(CurrentUser currentUser,
+                                                                                    @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                                    @RequestParam(name = "after") String after,
+                                                                                    @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
+        return toCursorPage(service.getBookingsByOwnerAfter(currentUser.getId(), state, BookingCursor.decode(after), size), size);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(CurrentUser currentUser) {
+        return eventBus.subscribe(currentUser.getId());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByUser(CurrentUser currentUser,
+                                                                      @RequestParam(name = "state", defaultValue = "ALL") String state) {
+        return export(BookingRole.BOOKER, currentUser.getId(), state, false);
+    }
+
+    @GetMapping(path = "/export", params = "format=csv")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByUserCsv(CurrentUser currentUser,
+                                                                         @RequestParam(name = "state", defaultValue = "ALL") String state) {
+        return export(BookingRole.BOOKER, currentUser.getId(), state, true);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsItemsByOwner(CurrentUser currentUser,
+                                                                            @RequestParam(name = "state", defaultValue = "ALL") String state) {
+        return export(BookingRole.OWNER, currentUser.getId(), state, false);
+    }
+
+    @GetMapping(path = "/owner/export", params = "format=csv")
+    public ResponseEntity<StreamingResponseBody> exportBookingsItemsByOwnerCsv(CurrentUser currentUser,
+                                                                               @RequestParam(name = "state", defaultValue = "ALL") String state) {
+        return export(BookingRole.OWNER, currentUser.getId(), state, true);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(BookingRole role, Long userId, String state, boolean csv) {
+        BookingState bookingState = BookingState.from(state);
+        StreamingResponseBody body = out -> {
+            BookingExportWriter writer = csv ? BookingExportWriter.csv(out) : BookingExportWriter.ndjson(out, objectMapper);
+            service.exportBookings(role, userId, bookingState, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private ResponseEntity<List<BookingDtoResponse>> toCountedPage(BookingRole role, Long userId, String state,
+                                                                   List<BookingDtoResponse> bookings, int offset,
+                                                                   int size, boolean counts) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!counts && bookings.size() < size && (offset == 0 || !bookings.isEmpty())) {
+            return response.header(TOTAL_COUNT_HEADER, String.valueOf(offset + bookings.size()))
+                    .body(bookings);
+        }
+        Map<BookingState, Long> stateCounts = service.countBookings(role, userId);
+        response.header(TOTAL_COUNT_HEADER, String.valueOf(stateCounts.getOrDefault(BookingState.from(state), 0L)));
+        if (counts) {
+            response.header(STATE_COUNTS_HEADER, stateCounts.entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(",")));
+        }
+        return response.body(bookings);
+    }
+
+    private ResponseEntity<List<BookingDtoResponse>> toCursorPage(List<BookingDtoResponse> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
     }
 }
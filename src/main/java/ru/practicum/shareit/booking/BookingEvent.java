@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BookingEvent {
+    private final BookingEventType type;
+    private final Long bookerId;
+    private final Long ownerId;
+    private final BookingDtoResponse booking;
+
+    public static BookingEvent of(BookingEventType type, Booking booking) {
+        return new BookingEvent(type, booking.getBooker().getId(), booking.getItem().getOwner().getId(),
+                BookingMapper.toResponse(booking));
+    }
+}
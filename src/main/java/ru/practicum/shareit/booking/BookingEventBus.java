@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class BookingEventBus implements MeterBinder {
+
+    private final int bufferSize;
+    private final long timeout;
+    private final Executor executor;
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public BookingEventBus(@Value("${shareit.events.buffer-size:256}") int bufferSize,
+                           @Value("${shareit.events.timeout:1800000}") long timeout,
+                           @Value("${shareit.events.threads:4}") int threads) {
+        this(bufferSize, timeout, Executors.newFixedThreadPool(threads));
+    }
+
+    BookingEventBus(int bufferSize, long timeout, Executor executor) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.executor = executor;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(Long userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter);
+        subscriptions.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(subscription);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+        log.debug("Пользователь {} подписался на события бронирований.", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(BookingEvent event) {
+        published.increment();
+        long id = sequence.incrementAndGet();
+        deliver(event.getBookerId(), id, event);
+        if (!event.getOwnerId().equals(event.getBookerId())) {
+            deliver(event.getOwnerId(), id, event);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.events.published", published, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("booking.events.dropped", dropped, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("booking.events.subscribers", this, BookingEventBus::subscribers)
+                .register(registry);
+    }
+
+    public int subscribers() {
+        return subscriptions.values().stream()
+                .mapToInt(Set::size)
+                .sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.values().forEach(set -> set.forEach(subscription -> subscription.emitter.complete()));
+        subscriptions.clear();
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private void deliver(Long userId, long id, BookingEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null) {
+            return;
+        }
+        userSubscriptions.forEach(subscription -> subscription.offer(id, event));
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean draining;
+
+        private Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(long id, BookingEvent event) {
+            SseEmitter.SseEventBuilder message = SseEmitter.event()
+                    .id(String.valueOf(id))
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event.getBooking());
+            synchronized (this) {
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(message);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder message;
+                synchronized (this) {
+                    message = buffer.pollFirst();
+                    if (message == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Подписка пользователя {} на события бронирований закрыта.", userId);
+                    unsubscribe(this);
+                    synchronized (this) {
+                        buffer.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
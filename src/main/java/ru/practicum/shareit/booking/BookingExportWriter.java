@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+class BookingExportWriter implements Consumer<BookingDtoResponse> {
+    static final String CSV_HEADER = "id,start,end,status,bookerId,itemId,itemName";
+
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    private BookingExportWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    static BookingExportWriter ndjson(OutputStream out, ObjectMapper objectMapper) {
+        return new BookingExportWriter(out, objectMapper);
+    }
+
+    static BookingExportWriter csv(OutputStream out) throws IOException {
+        BookingExportWriter exportWriter = new BookingExportWriter(out, null);
+        exportWriter.writer.write(CSV_HEADER);
+        exportWriter.writer.write('\n');
+        return exportWriter;
+    }
+
+    @Override
+    public void accept(BookingDtoResponse booking) {
+        try {
+            if (objectMapper != null) {
+                writer.write(objectMapper.writeValueAsString(booking));
+            } else {
+                writer.write(toCsv(booking));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String toCsv(BookingDtoResponse booking) {
+        return booking.getId() + "," + booking.getStart() + "," + booking.getEnd() + "," + booking.getStatus()
+                + "," + booking.getBooker().getId() + "," + booking.getItem().getId()
+                + "," + escape(booking.getItem().getName());
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository repository;
+
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Booking> bookings = repository.findAllByStatusInAndEndIsAfter(ACTIVE_STATUSES, LocalDateTime.now());
+        for (Booking booking : bookings) {
+            withTimeline(booking.getItem().getId(), timeline -> {
+                timeline.committed.insert(toMicros(booking.getStart()), toMicros(booking.getEnd()), booking.getId());
+                return null;
+            });
+        }
+        log.info("Индекс бронирований построен: {} бронирований по {} предметам.", bookings.size(), timelines.size());
+    }
+
+    public Booking reserve(Booking booking, Supplier<Booking> saver) {
+        return withTimeline(booking.getItem().getId(), timeline -> {
+            checkFree(timeline, booking);
+            Booking savedBooking = saver.get();
+            hold(timeline, savedBooking);
+            return savedBooking;
+        });
+    }
+
+    public void restore(Booking booking) {
+        withTimeline(booking.getItem().getId(), timeline -> {
+            checkFree(timeline, booking);
+            hold(timeline, booking);
+            return null;
+        });
+    }
+
+    public void release(Booking booking) {
+        afterCompletion(() -> {
+            Timeline timeline = timelines.get(booking.getItem().getId());
+            if (timeline == null) {
+                return;
+            }
+            synchronized (timeline) {
+                timeline.committed.remove(toMicros(booking.getStart()), booking.getId());
+            }
+        }, null);
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return true;
+        }
+        synchronized (timeline) {
+            return !timeline.committed.overlaps(toMicros(start), toMicros(end));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-index.sweep-interval:3600000}")
+    public void evictEnded() {
+        long now = toMicros(LocalDateTime.now());
+        int evicted = 0;
+        for (Map.Entry<Long, Timeline> entry : timelines.entrySet()) {
+            Timeline timeline = entry.getValue();
+            synchronized (timeline) {
+                evicted += timeline.committed.removeEndedBefore(now);
+                if (timeline.committed.size() == 0 && timeline.pending.size() == 0) {
+                    timeline.evicted = true;
+                    timelines.remove(entry.getKey(), timeline);
+                }
+            }
+        }
+        log.debug("Из индекса бронирований удалено {} завершённых интервалов.", evicted);
+    }
+
+    int size() {
+        return timelines.size();
+    }
+
+    private void hold(Timeline timeline, Booking booking) {
+        long start = toMicros(booking.getStart());
+        long end = toMicros(booking.getEnd());
+        timeline.pending.insert(start, end, booking.getId());
+        afterCompletion(() -> {
+            synchronized (timeline) {
+                timeline.pending.remove(start, booking.getId());
+                timeline.committed.insert(start, end, booking.getId());
+            }
+        }, () -> {
+            synchronized (timeline) {
+                timeline.pending.remove(start, booking.getId());
+            }
+        });
+    }
+
+    private void checkFree(Timeline timeline, Booking booking) {
+        long start = toMicros(booking.getStart());
+        long end = toMicros(booking.getEnd());
+        if (timeline.committed.overlaps(start, end) || timeline.pending.overlaps(start, end)) {
+            throw new BookingOverlapException("Вещь уже забронирована на выбранное время.");
+        }
+    }
+
+    private <T> T withTimeline(Long itemId, Function<Timeline, T> action) {
+        while (true) {
+            Timeline timeline = timelines.computeIfAbsent(itemId, id -> new Timeline());
+            synchronized (timeline) {
+                if (!timeline.evicted) {
+                    return action.apply(timeline);
+                }
+            }
+        }
+    }
+
+    private void afterCompletion(Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && rolledBack != null) {
+                    rolledBack.run();
+                }
+            }
+        });
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static final class Timeline {
+        private final IntervalTree committed = new IntervalTree();
+        private final IntervalTree pending = new IntervalTree();
+        private boolean evicted;
+    }
+}
@@ -5,11 +5,16 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
@@ -47,4 +52,26 @@ public class BookingMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public static BookingShort toShort(ItemBookingView view) {
+        return BookingShort.builder()
+                .id(view.getId())
+                .bookerId(view.getBookerId())
+                .build();
+    }
+
+    public static Map<BookingState, Long> toStateCounts(BookingStatsView stats) {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, orZero(stats.getTotalCount()));
+        counts.put(BookingState.CURRENT, orZero(stats.getCurrentCount()));
+        counts.put(BookingState.PAST, orZero(stats.getPastCount()));
+        counts.put(BookingState.FUTURE, orZero(stats.getFutureCount()));
+        counts.put(BookingState.WAITING, orZero(stats.getWaitingCount()));
+        counts.put(BookingState.REJECTED, orZero(stats.getRejectedCount()));
+        return counts;
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+    private final BookingRole role;
+    private final Long userId;
+    private final BookingState state;
+    private final LocalDateTime now;
+    private final BookingCursor after;
+    private final int offset;
+    private final int limit;
+}
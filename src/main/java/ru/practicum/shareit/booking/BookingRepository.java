@@ -1,36 +1,75 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.user.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookerItemView;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerOrderByStartDesc(User user, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph("Booking.itemAndBooker")
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    boolean existsByBookerIdAndItemIdAndEndIsBefore(Long bookerId, Long itemId, LocalDateTime end);
 
-    List<Booking> findAllByBookerAndStartIsAfterOrderByStartDesc(User user, LocalDateTime start, Pageable pageable);
+    @Query("SELECT DISTINCT b.booker.id AS bookerId, b.item.id AS itemId FROM Booking b WHERE b.end <= ?1")
+    List<BookerItemView> findEndedPairs(LocalDateTime until);
 
-    List<Booking> findAllByBookerAndEndIsBeforeOrderByStartDesc(User user, LocalDateTime end, Pageable pageable);
+    @Query("SELECT DISTINCT b.booker.id AS bookerId, b.item.id AS itemId FROM Booking b " +
+            "WHERE b.end > ?1 AND b.end <= ?2")
+    List<BookerItemView> findEndedPairsBetween(LocalDateTime after, LocalDateTime until);
 
-    List<Booking> findAllByBookerAndStatusEqualsOrderByStartDesc(User user, Status status, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, i.id, i.name) FROM Booking b JOIN b.item i WHERE b.id IN ?1 ORDER BY b.id")
+    List<BookingDtoResponse> findAllDtoByIdIn(Collection<Long> ids);
 
-    List<Booking> findAllByItemOwnerOrderByStartDesc(User owner, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, i.id, i.name) FROM Booking b JOIN b.item i " +
+            "WHERE i.id = ?1 AND b.status <> ?2 AND b.start IS NOT NULL ORDER BY b.start, b.id")
+    List<BookingDtoResponse> findAllDtoByItemIdAndStatusNot(Long itemId, Status status);
 
-    List<Booking> findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(User owner, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    String STATS_SELECT = "SELECT COUNT(b) AS totalCount, " +
+            "SUM(CASE WHEN b.start < ?2 AND b.end > ?2 THEN 1 ELSE 0 END) AS currentCount, " +
+            "SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END) AS pastCount, " +
+            "SUM(CASE WHEN b.start > ?2 THEN 1 ELSE 0 END) AS futureCount, " +
+            "SUM(CASE WHEN b.status = ?3 THEN 1 ELSE 0 END) AS waitingCount, " +
+            "SUM(CASE WHEN b.status = ?4 THEN 1 ELSE 0 END) AS rejectedCount, " +
+            "SUM(CASE WHEN b.status = ?3 AND b.end > ?2 THEN 1 ELSE 0 END) AS pendingCount, " +
+            "MIN(CASE WHEN b.start > ?2 THEN b.start END) AS nextStart, " +
+            "MIN(CASE WHEN b.end > ?2 THEN b.end END) AS nextEnd FROM Booking b ";
 
-    List<Booking> findAllByItemOwnerAndStartIsAfterOrderByStartDesc(User owner, LocalDateTime start, Pageable pageable);
+    @Query(STATS_SELECT + "WHERE b.item.owner.id = ?1")
+    BookingStatsView aggregateByOwnerId(Long ownerId, LocalDateTime now, Status waiting, Status rejected);
 
-    List<Booking> findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(User owner, LocalDateTime end, Pageable pageable);
+    @Query(STATS_SELECT + "WHERE b.booker.id = ?1")
+    BookingStatsView aggregateByBookerId(Long bookerId, LocalDateTime now, Status waiting, Status rejected);
 
-    List<Booking> findAllByItemOwnerAndStatusEqualsOrderByStartDesc(User owner, Status status, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingDtoResponse(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, i.id, i.name) FROM Booking b JOIN b.item i " +
+            "WHERE i.owner.id = ?1 AND b.start > ?2 AND b.status <> ?3 ORDER BY b.start, b.id")
+    List<BookingDtoResponse> findUpcomingByOwnerId(Long ownerId, LocalDateTime now, Status excluded, Pageable pageable);
 
-    Booking findFirstByBookerIdAndItemIdAndEndIsBeforeOrderByEndDesc(Long bookerId, Long itemId, LocalDateTime end);
+    List<Booking> findAllByStatusInAndEndIsAfter(Collection<Status> statuses, LocalDateTime end);
 
-    Booking findFirstByItemIdAndStartIsBeforeOrStartEqualsOrderByStartDesc(Long itemId, LocalDateTime start1, LocalDateTime start2);
-
-    Booking findFirstByItemIdAndStartIsAfterOrderByStart(Long itemId, LocalDateTime start);
+    @Query(value = "SELECT t.item_id AS itemId, t.id AS id, t.booker_id AS bookerId, t.status AS status, t.past AS past " +
+            "FROM (SELECT b.id, b.item_id, b.booker_id, b.status, b.start_date <= :now AS past, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_date <= :now " +
+            "ORDER BY CASE WHEN b.start_date <= :now THEN b.start_date END DESC, " +
+            "CASE WHEN b.start_date > :now THEN b.start_date END) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.start_date IS NOT NULL " +
+            "AND b.status <> :excluded) t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now,
+                                                    @Param("excluded") String excludedStatus);
 }
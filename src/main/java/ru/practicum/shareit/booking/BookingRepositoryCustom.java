@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+    List<BookingDtoResponse> findBookings(BookingQuery query);
+
+    Stream<BookingDtoResponse> streamBookings(BookingQuery query, int fetchSize);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Slf4j
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoResponse> findBookings(BookingQuery query) {
+        long startedAt = System.nanoTime();
+        List<BookingDtoResponse> bookings = createQuery(query)
+                .setFirstResult(query.getAfter() == null ? query.getOffset() : 0)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+        log.debug("Запрос бронирований {} вернул {} строк за {} мкс.", query, bookings.size(),
+                (System.nanoTime() - startedAt) / 1_000);
+        return bookings;
+    }
+
+    @Override
+    public Stream<BookingDtoResponse> streamBookings(BookingQuery query, int fetchSize) {
+        return createQuery(query)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<BookingDtoResponse> createQuery(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoResponse> criteria = cb.createQuery(BookingDtoResponse.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        BookingState state = query.getState();
+        LocalDateTime now = query.getNow();
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getRole() == BookingRole.BOOKER) {
+            predicates.add(cb.equal(booking.get("booker").get("id"), query.getUserId()));
+        } else {
+            predicates.add(cb.equal(item.get("owner").get("id"), query.getUserId()));
+        }
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), Status.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), Status.REJECTED));
+                break;
+            default:
+                break;
+        }
+        BookingCursor after = query.getAfter();
+        if (after != null) {
+            if (state.isAscending()) {
+                predicates.add(cb.or(cb.greaterThan(start, after.getStart()),
+                        cb.and(cb.equal(start, after.getStart()), cb.greaterThan(id, after.getId()))));
+            } else {
+                predicates.add(cb.or(cb.lessThan(start, after.getStart()),
+                        cb.and(cb.equal(start, after.getStart()), cb.lessThan(id, after.getId()))));
+            }
+        }
+        criteria.select(cb.construct(BookingDtoResponse.class, id, start, end, booking.get("status"),
+                        booking.get("booker").get("id"), item.get("id"), item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(state.isAscending()
+                        ? List.of(cb.asc(start), cb.asc(id))
+                        : List.of(cb.desc(start), cb.desc(id)));
+        return entityManager.createQuery(criteria);
+    }
+}
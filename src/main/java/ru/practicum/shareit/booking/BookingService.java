@@ -1,17 +1,34 @@
 package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
+import ru.practicum.shareit.user.User;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
-    Booking createBooking(BookingDtoRequest bookingDto, Long userId);
+    Booking createBooking(BookingDtoRequest bookingDto, User booker);
+
+    List<Booking> createBookings(List<BookingDtoRequest> bookingDtos, User booker);
 
     Booking changeStatus(Long bookingId, Long userId, Boolean approved);
 
     Booking getBooking(Long id, Long userId);
 
-    List<Booking> getAllBookingsByUser(Long userId, String state, Integer from, Integer size);
+    List<BookingDtoResponse> getAllBookingsByUser(Long userId, String state, Integer from, Integer size);
+
+    List<BookingDtoResponse> getAllBookingsItemsByOwner(Long ownerId, String state, Integer from, Integer size);
+
+    List<BookingDtoResponse> getBookingsByUserAfter(Long userId, String state, BookingCursor after, Integer size);
+
+    List<BookingDtoResponse> getBookingsByOwnerAfter(Long ownerId, String state, BookingCursor after, Integer size);
+
+    void exportBookings(BookingRole role, Long userId, BookingState state, Consumer<BookingDtoResponse> consumer);
+
+    OwnerSummaryDto getOwnerSummary(Long ownerId);
 
-    List<Booking> getAllBookingsItemsByOwner(Long ownerId, String state, Integer from, Integer size);
+    Map<BookingState, Long> countBookings(BookingRole role, Long userId);
 }
@@ -1,74 +1,117 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
 import ru.practicum.shareit.exceptions.*;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.sync.ChangeLog;
+import ru.practicum.shareit.sync.ChangeType;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_FETCH_SIZE = 500;
 
     private final BookingRepository repository;
-    private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ChangeLog changeLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnerSummaryCache ownerSummary;
 
     @Override
     @Transactional
-    public Booking createBooking(BookingDtoRequest bookingDto, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + userId + "  не существует"));
-        if (bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().equals(bookingDto.getEnd())) {
-            throw new WrongDateException("Выставлена неверная дата, перепроверьте и введите еще раз.");
-        }
+    public Booking createBooking(BookingDtoRequest bookingDto, User booker) {
+        checkDates(bookingDto);
         Item item = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new DataNotFoundException("Предмета с таким id = " + bookingDto.getItemId() + " не существует."));
-        if (userId.equals(item.getOwner().getId()))
-            throw new SelfBookingException("Владелец не может забронировать вещь сам у себя.");
-        if (!item.getAvailable()) {
-            throw new UnavailableItemException("К сожалению, вещь недоступна для бронирования.");
+        checkBookable(item, booker);
+        Booking newBooking = BookingMapper.toBooking(bookingDto, booker, item, Status.WAITING);
+        Booking savedBooking = intervalIndex.reserve(newBooking, () -> {
+            Booking booking = repository.save(newBooking);
+            recordChange(booking);
+            return booking;
+        });
+        eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, savedBooking));
+        ownerSummary.bookingCreated(item.getOwner().getId(), savedBooking);
+        return savedBooking;
+    }
+
+    @Override
+    @Transactional
+    public List<Booking> createBookings(List<BookingDtoRequest> bookingDtos, User booker) {
+        bookingDtos.forEach(this::checkDates);
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDtoRequest::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDtoRequest bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new DataNotFoundException("Предмета с таким id = " + bookingDto.getItemId() + " не существует.");
+            }
+            checkBookable(item, booker);
+            Booking newBooking = BookingMapper.toBooking(bookingDto, booker, item, Status.WAITING);
+            bookings.add(intervalIndex.reserve(newBooking, () -> repository.save(newBooking)));
         }
-        Booking booking = repository.save(BookingMapper.toBooking(bookingDto, user, item, Status.WAITING));
-        return repository.findById(booking.getId())
-                .orElseThrow(() -> new DataNotFoundException("Не найдено бронирование с  id " + booking.getId()));
+        bookings.forEach(this::recordChange);
+        bookings.forEach(booking -> eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, booking)));
+        bookings.forEach(booking -> ownerSummary.bookingCreated(booking.getItem().getOwner().getId(), booking));
+        return bookings;
     }
 
     @Override
     @Transactional
     public Booking changeStatus(Long bookingId, Long userId, Boolean approved) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + userId + "  не существует"));
         Booking booking = repository.findById(bookingId)
                 .orElseThrow(() -> new DataNotFoundException("Бронирования с таким id = " + bookingId + " не существует."));
         if (!userId.equals(booking.getItem().getOwner().getId())) {
             throw new WrongOwnerException("Статус бронирования может поменять только владелец.");
         }
+        Status previous = booking.getStatus();
         if (approved) {
             if (booking.getStatus() == Status.APPROVED) {
                 throw new StatusAlreadyApprovedException("Статус бронирования уже подтвержден.");
             }
+            if (booking.getStatus() == Status.REJECTED) {
+                intervalIndex.restore(booking);
+            }
             booking.setStatus(Status.APPROVED);
         } else {
+            if (booking.getStatus() != Status.REJECTED) {
+                intervalIndex.release(booking);
+            }
             booking.setStatus(Status.REJECTED);
         }
         repository.save(booking);
+        recordChange(booking);
+        eventPublisher.publishEvent(BookingEvent.of(approved ? BookingEventType.APPROVED : BookingEventType.REJECTED,
+                booking));
+        ownerSummary.statusChanged(userId, booking, previous);
         return booking;
     }
 
     @Override
     public Booking getBooking(Long id, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + userId + "  не существует"));
         Booking booking = repository.findById(id)
                 .orElseThrow(() -> new DataNotFoundException("Бронирования с таким id = " + id + " не существует."));
         Item item = booking.getItem();
@@ -79,66 +122,82 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getAllBookingsByUser(Long userId, String state, Integer from, Integer size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + userId + "  не существует"));
-        LocalDateTime time = LocalDateTime.now();
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Booking> bookings;
-        switch (state) {
-            case "ALL":
-                bookings = repository.findAllByBookerOrderByStartDesc(user, pageable);
-                break;
-            case "CURRENT":
-                bookings = repository.findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(user, time, time, pageable);
-                break;
-            case "PAST":
-                bookings = repository.findAllByBookerAndEndIsBeforeOrderByStartDesc(user, time, pageable);
-                break;
-            case "FUTURE":
-                bookings = repository.findAllByBookerAndStartIsAfterOrderByStartDesc(user, time, pageable);
-                break;
-            case "WAITING":
-                bookings = repository.findAllByBookerAndStatusEqualsOrderByStartDesc(user, Status.WAITING, pageable);
-                break;
-            case "REJECTED":
-                bookings = repository.findAllByBookerAndStatusEqualsOrderByStartDesc(user, Status.REJECTED, pageable);
-                break;
-            default:
-                throw new WrongDateException("Unknown state: UNSUPPORTED_STATUS");
+    public List<BookingDtoResponse> getAllBookingsByUser(Long userId, String state, Integer from, Integer size) {
+        return getBookings(BookingRole.BOOKER, userId, state, null, from / size * size, size);
+    }
+
+    @Override
+    public List<BookingDtoResponse> getAllBookingsItemsByOwner(Long ownerId, String state, Integer from, Integer size) {
+        return getBookings(BookingRole.OWNER, ownerId, state, null, from / size * size, size);
+    }
+
+    @Override
+    public List<BookingDtoResponse> getBookingsByUserAfter(Long userId, String state, BookingCursor after, Integer size) {
+        return getBookings(BookingRole.BOOKER, userId, state, after, 0, size);
+    }
+
+    @Override
+    public List<BookingDtoResponse> getBookingsByOwnerAfter(Long ownerId, String state, BookingCursor after, Integer size) {
+        return getBookings(BookingRole.OWNER, ownerId, state, after, 0, size);
+    }
+
+    @Override
+    @Transactional
+    public void exportBookings(BookingRole role, Long userId, BookingState state, Consumer<BookingDtoResponse> consumer) {
+        BookingQuery query = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .now(LocalDateTime.now())
+                .build();
+        try (Stream<BookingDtoResponse> bookings = repository.streamBookings(query, EXPORT_FETCH_SIZE)) {
+            bookings.forEach(consumer);
         }
-        return bookings;
     }
 
     @Override
-    public List<Booking> getAllBookingsItemsByOwner(Long ownerId, String state, Integer from, Integer size) {
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + ownerId + "  не существует"));
-        LocalDateTime time = LocalDateTime.now();
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Booking> bookings;
-        switch (state) {
-            case "ALL":
-                bookings = repository.findAllByItemOwnerOrderByStartDesc(owner, pageable);
-                break;
-            case "CURRENT":
-                bookings = repository.findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(owner, time, time, pageable);
-                break;
-            case "PAST":
-                bookings = repository.findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(owner, time, pageable);
-                break;
-            case "FUTURE":
-                bookings = repository.findAllByItemOwnerAndStartIsAfterOrderByStartDesc(owner, time, pageable);
-                break;
-            case "WAITING":
-                bookings = repository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(owner, Status.WAITING, pageable);
-                break;
-            case "REJECTED":
-                bookings = repository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(owner, Status.REJECTED, pageable);
-                break;
-            default:
-                throw new WrongDateException("Unknown state: UNSUPPORTED_STATUS");
+    public OwnerSummaryDto getOwnerSummary(Long ownerId) {
+        return ownerSummary.get(ownerId);
+    }
+
+    @Override
+    public Map<BookingState, Long> countBookings(BookingRole role, Long userId) {
+        if (role == BookingRole.OWNER) {
+            return ownerSummary.get(userId).getStates();
+        }
+        return BookingMapper.toStateCounts(repository.aggregateByBookerId(userId, LocalDateTime.now(),
+                Status.WAITING, Status.REJECTED));
+    }
+
+    private List<BookingDtoResponse> getBookings(BookingRole role, Long userId, String state, BookingCursor after,
+                                                 int offset, int size) {
+        return repository.findBookings(BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(BookingState.from(state))
+                .now(LocalDateTime.now())
+                .after(after)
+                .offset(offset)
+                .limit(size)
+                .build());
+    }
+
+    private void recordChange(Booking booking) {
+        changeLog.record(ChangeType.BOOKING, booking.getId(), booking.getBooker().getId(),
+                booking.getItem().getOwner().getId());
+    }
+
+    private void checkDates(BookingDtoRequest bookingDto) {
+        if (bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().equals(bookingDto.getEnd())) {
+            throw new WrongDateException("Выставлена неверная дата, перепроверьте и введите еще раз.");
+        }
+    }
+
+    private void checkBookable(Item item, User booker) {
+        if (booker.getId().equals(item.getOwner().getId()))
+            throw new SelfBookingException("Владелец не может забронировать вещь сам у себя.");
+        if (!item.getAvailable()) {
+            throw new UnavailableItemException("К сожалению, вещь недоступна для бронирования.");
         }
-        return bookings;
     }
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.exceptions.WrongDateException;
+
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    public static BookingState from(String state) {
+        try {
+            return valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new WrongDateException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    public boolean isAscending() {
+        return this == CURRENT;
+    }
+}
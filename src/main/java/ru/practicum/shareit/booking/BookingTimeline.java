@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingShort;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class BookingTimeline implements MeterBinder {
+
+    private final BookingRepository repository;
+    private final long maxEntries;
+
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong footprint = new AtomicLong();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BookingTimeline(BookingRepository repository,
+                           @Value("${shareit.booking-timeline.max-entries:1000000}") long maxEntries) {
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+    }
+
+    public BookingShort findLast(Long itemId, LocalDateTime now) {
+        return find(itemId, BookingIntervalIndex.toMicros(now), true);
+    }
+
+    public BookingShort findNext(Long itemId, LocalDateTime now) {
+        return find(itemId, BookingIntervalIndex.toMicros(now), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        BookingDtoResponse booking = event.getBooking();
+        Long itemId = booking.getItem().getId();
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return;
+        }
+        synchronized (timeline) {
+            if (!timeline.loaded || timelines.get(itemId) != timeline) {
+                return;
+            }
+            int sizeBefore = timeline.size();
+            long footprintBefore = timeline.footprint();
+            if (booking.getStatus() == Status.REJECTED) {
+                timeline.remove(booking.getId());
+            } else {
+                put(timeline, booking);
+            }
+            account(timeline, sizeBefore, footprintBefore);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.timeline.items", timelines, Map::size)
+                .register(registry);
+        Gauge.builder("booking.timeline.entries", entries, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("booking.timeline.footprint", footprint, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("booking.timeline.loads", loads, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("booking.timeline.evictions", evictions, LongAdder::sum)
+                .register(registry);
+    }
+
+    long entries() {
+        return entries.get();
+    }
+
+    int items() {
+        return timelines.size();
+    }
+
+    private BookingShort find(Long itemId, long now, boolean past) {
+        while (true) {
+            ItemTimeline timeline = timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+            boolean freshlyLoaded;
+            BookingShort found;
+            synchronized (timeline) {
+                if (timelines.get(itemId) != timeline) {
+                    continue;
+                }
+                freshlyLoaded = !timeline.loaded;
+                if (freshlyLoaded) {
+                    load(itemId, timeline);
+                }
+                int index = past ? timeline.last(now) : timeline.next(now);
+                found = index < 0 ? null : BookingShort.builder()
+                        .id(timeline.id(index))
+                        .bookerId(timeline.bookerId(index))
+                        .build();
+            }
+            if (freshlyLoaded && entries.get() > maxEntries) {
+                evict(itemId);
+            }
+            return found;
+        }
+    }
+
+    private void load(Long itemId, ItemTimeline timeline) {
+        for (BookingDtoResponse booking : repository.findAllDtoByItemIdAndStatusNot(itemId, Status.REJECTED)) {
+            put(timeline, booking);
+        }
+        timeline.loaded = true;
+        loads.increment();
+        account(timeline, 0, 0);
+    }
+
+    private void put(ItemTimeline timeline, BookingDtoResponse booking) {
+        long end = booking.getEnd() == null ? Long.MAX_VALUE : BookingIntervalIndex.toMicros(booking.getEnd());
+        timeline.put(BookingIntervalIndex.toMicros(booking.getStart()), end, booking.getId(),
+                booking.getBooker().getId());
+    }
+
+    private void account(ItemTimeline timeline, int sizeBefore, long footprintBefore) {
+        entries.addAndGet(timeline.size() - sizeBefore);
+        footprint.addAndGet(timeline.footprint() - footprintBefore);
+    }
+
+    private void evict(Long keep) {
+        Iterator<Map.Entry<Long, ItemTimeline>> iterator = timelines.entrySet().iterator();
+        while (entries.get() > maxEntries && iterator.hasNext()) {
+            Map.Entry<Long, ItemTimeline> entry = iterator.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            ItemTimeline timeline = entry.getValue();
+            synchronized (timeline) {
+                if (timelines.remove(entry.getKey(), timeline) && timeline.loaded) {
+                    entries.addAndGet(-timeline.size());
+                    footprint.addAndGet(-timeline.footprint());
+                    evictions.increment();
+                }
+            }
+        }
+        log.debug("Таймлайн бронирований превысил бюджет, осталось {} записей по {} предметам.", entries.get(),
+                timelines.size());
+    }
+}
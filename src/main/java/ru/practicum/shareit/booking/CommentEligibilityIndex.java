@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookerItemView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class CommentEligibilityIndex implements MeterBinder {
+
+    private final BookingRepository repository;
+    private final Supplier<LocalDateTime> clock;
+    private final LongHashSet pairs = new LongHashSet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private LocalDateTime watermark;
+
+    @Autowired
+    public CommentEligibilityIndex(BookingRepository repository) {
+        this(repository, LocalDateTime::now);
+    }
+
+    CommentEligibilityIndex(BookingRepository repository, Supplier<LocalDateTime> clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = clock.get();
+        List<BookerItemView> ended = repository.findEndedPairs(now);
+        synchronized (this) {
+            ended.forEach(this::add);
+            watermark = now;
+        }
+        log.info("Индекс права на отзыв построен: {} пар бронирующий-вещь.", size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.comment-eligibility.refresh-interval:60000}")
+    public void refresh() {
+        LocalDateTime from;
+        synchronized (this) {
+            from = watermark;
+        }
+        if (from == null) {
+            return;
+        }
+        LocalDateTime now = clock.get();
+        List<BookerItemView> ended = repository.findEndedPairsBetween(from, now);
+        synchronized (this) {
+            ended.forEach(this::add);
+            watermark = now;
+        }
+        log.debug("Индекс права на отзыв обновлён: добавлено {} пар.", ended.size());
+    }
+
+    public boolean canComment(Long bookerId, Long itemId) {
+        long key = key(bookerId, itemId);
+        if (key != 0) {
+            synchronized (this) {
+                if (pairs.contains(key)) {
+                    hits.increment();
+                    return true;
+                }
+            }
+        }
+        fallbacks.increment();
+        if (!repository.existsByBookerIdAndItemIdAndEndIsBefore(bookerId, itemId, clock.get())) {
+            return false;
+        }
+        if (key != 0) {
+            synchronized (this) {
+                pairs.add(key);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("comment.eligibility.checks", hits, LongAdder::sum)
+                .tags("source", "index")
+                .register(registry);
+        FunctionCounter.builder("comment.eligibility.checks", fallbacks, LongAdder::sum)
+                .tags("source", "database")
+                .register(registry);
+        Gauge.builder("comment.eligibility.pairs", this, CommentEligibilityIndex::size)
+                .register(registry);
+        Gauge.builder("comment.eligibility.footprint", this, CommentEligibilityIndex::footprint)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public synchronized int size() {
+        return pairs.size();
+    }
+
+    private synchronized long footprint() {
+        return pairs.footprint();
+    }
+
+    private void add(BookerItemView pair) {
+        long key = key(pair.getBookerId(), pair.getItemId());
+        if (key != 0) {
+            pairs.add(key);
+        }
+    }
+
+    private static long key(Long bookerId, Long itemId) {
+        if (bookerId == null || itemId == null || bookerId < 0 || bookerId > Integer.MAX_VALUE
+                || itemId < 0 || itemId > Integer.MAX_VALUE) {
+            return 0;
+        }
+        return bookerId << 32 | itemId;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Arrays;
+
+class ItemTimeline {
+    static final int ENTRY_BYTES = 4 * Long.BYTES;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] bookerIds = new long[INITIAL_CAPACITY];
+    private int size;
+
+    boolean loaded;
+
+    void put(long start, long end, long id, long bookerId) {
+        remove(id);
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            bookerIds = Arrays.copyOf(bookerIds, capacity);
+        }
+        int index = upperBound(start, id);
+        int moved = size - index;
+        System.arraycopy(starts, index, starts, index + 1, moved);
+        System.arraycopy(ends, index, ends, index + 1, moved);
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        System.arraycopy(bookerIds, index, bookerIds, index + 1, moved);
+        starts[index] = start;
+        ends[index] = end;
+        ids[index] = id;
+        bookerIds[index] = bookerId;
+        size++;
+    }
+
+    boolean remove(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                int moved = size - i - 1;
+                System.arraycopy(starts, i + 1, starts, i, moved);
+                System.arraycopy(ends, i + 1, ends, i, moved);
+                System.arraycopy(ids, i + 1, ids, i, moved);
+                System.arraycopy(bookerIds, i + 1, bookerIds, i, moved);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int last(long now) {
+        return upperBound(now, Long.MAX_VALUE) - 1;
+    }
+
+    int next(long now) {
+        int index = upperBound(now, Long.MAX_VALUE);
+        return index < size ? index : -1;
+    }
+
+    long start(int index) {
+        return starts[index];
+    }
+
+    long end(int index) {
+        return ends[index];
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    long bookerId(int index) {
+        return bookerIds[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long footprint() {
+        return (long) starts.length * ENTRY_BYTES;
+    }
+
+    private int upperBound(long start, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < start || starts[middle] == start && ids[middle] <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
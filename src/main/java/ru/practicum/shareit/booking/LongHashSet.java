@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+class LongHashSet {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size;
+    private int threshold = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+
+    boolean add(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Ключ 0 зарезервирован под пустую ячейку.");
+        }
+        int slot = find(keys, key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size > threshold) {
+            resize();
+        }
+        return true;
+    }
+
+    boolean contains(long key) {
+        return key != 0 && keys[find(keys, key)] == key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long footprint() {
+        return (long) keys.length * Long.BYTES;
+    }
+
+    private void resize() {
+        long[] resized = new long[keys.length * 2];
+        for (long key : keys) {
+            if (key != 0) {
+                resized[find(resized, key)] = key;
+            }
+        }
+        keys = resized;
+        threshold = (int) (resized.length * LOAD_FACTOR);
+    }
+
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        return key ^ key >>> 33;
+    }
+}
@@ -0,0 +1,266 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class OwnerSummaryCache implements MeterBinder {
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final Supplier<LocalDateTime> clock;
+    private final Map<Long, Counters> owners = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder reconciliations = new LongAdder();
+    private volatile long generation;
+
+    @Autowired
+    public OwnerSummaryCache(BookingRepository bookingRepository, ItemRepository itemRepository) {
+        this(bookingRepository, itemRepository, LocalDateTime::now);
+    }
+
+    OwnerSummaryCache(BookingRepository bookingRepository, ItemRepository itemRepository,
+                      Supplier<LocalDateTime> clock) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.clock = clock;
+    }
+
+    public OwnerSummaryDto get(Long ownerId) {
+        LocalDateTime now = clock.get();
+        Counters counters = owners.get(ownerId);
+        if (counters == null || counters.isStale(now)) {
+            counters = reconcile(ownerId, now);
+        } else {
+            hits.increment();
+        }
+        counters.lastRead = generation;
+        return counters.snapshot();
+    }
+
+    public void bookingCreated(Long ownerId, Booking booking) {
+        BookingDtoResponse created = BookingMapper.toResponse(booking);
+        update(ownerId, counters -> counters.add(created, clock.get()));
+    }
+
+    public void statusChanged(Long ownerId, Booking booking, Status previous) {
+        BookingDtoResponse changed = BookingMapper.toResponse(booking);
+        update(ownerId, counters -> counters.changeStatus(changed, previous, clock.get()));
+    }
+
+    public void itemsCreated(Long ownerId, int count) {
+        update(ownerId, counters -> counters.items.add(count));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.owner-summary.reconcile-interval:300000}")
+    public void reconcileAll() {
+        long current = generation++;
+        LocalDateTime now = clock.get();
+        int reconciled = 0;
+        for (Map.Entry<Long, Counters> entry : owners.entrySet()) {
+            if (entry.getValue().lastRead < current) {
+                owners.remove(entry.getKey(), entry.getValue());
+            } else {
+                reconcile(entry.getKey(), now);
+                reconciled++;
+            }
+        }
+        log.debug("Сверены счётчики {} владельцев, в кэше осталось {}.", reconciled, owners.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("owner.summary.hits", hits, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("owner.summary.reconciliations", reconciliations, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("owner.summary.owners", owners, Map::size)
+                .register(registry);
+    }
+
+    int size() {
+        return owners.size();
+    }
+
+    private Counters reconcile(Long ownerId, LocalDateTime now) {
+        long version = writes.get();
+        BookingStatsView stats = bookingRepository.aggregateByOwnerId(ownerId, now, Status.WAITING,
+                Status.REJECTED);
+        List<BookingDtoResponse> upcoming = bookingRepository.findUpcomingByOwnerId(ownerId, now, Status.REJECTED,
+                PageRequest.of(0, 1));
+        Counters fresh = new Counters(stats, itemRepository.countByOwnerId(ownerId),
+                upcoming.isEmpty() ? null : upcoming.get(0));
+        reconciliations.increment();
+        owners.compute(ownerId, (id, old) -> {
+            if (writes.get() != version || inFlight.get() > 0) {
+                return old;
+            }
+            if (old != null) {
+                fresh.lastRead = old.lastRead;
+            }
+            return fresh;
+        });
+        return fresh;
+    }
+
+    private void update(Long ownerId, Consumer<Counters> change) {
+        afterCommit(() -> {
+            writes.incrementAndGet();
+            owners.computeIfPresent(ownerId, (id, counters) -> {
+                change.accept(counters);
+                return counters;
+            });
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        writes.incrementAndGet();
+        inFlight.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isBefore(second) ? first : second;
+    }
+
+    static class Counters {
+        private final Map<BookingState, LongAdder> states = new EnumMap<>(BookingState.class);
+        private final LongAdder items = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+        private BookingDtoResponse nextBooking;
+        private LocalDateTime validUntil;
+        private volatile long lastRead;
+
+        Counters(BookingStatsView stats, long items, BookingDtoResponse nextBooking) {
+            BookingMapper.toStateCounts(stats).forEach((state, count) -> {
+                LongAdder adder = new LongAdder();
+                adder.add(count);
+                states.put(state, adder);
+            });
+            Long pendingCount = stats.getPendingCount();
+            pending.add(pendingCount == null ? 0 : pendingCount);
+            this.items.add(items);
+            this.nextBooking = nextBooking;
+            this.validUntil = earliest(stats.getNextStart(), stats.getNextEnd());
+        }
+
+        synchronized boolean isStale(LocalDateTime now) {
+            return validUntil != null && !now.isBefore(validUntil);
+        }
+
+        OwnerSummaryDto snapshot() {
+            Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+            states.forEach((state, adder) -> counts.put(state, adder.sum()));
+            return OwnerSummaryDto.builder()
+                    .states(counts)
+                    .items(items.sum())
+                    .pendingApprovals(pending.sum())
+                    .nextBooking(nextBooking())
+                    .build();
+        }
+
+        void add(BookingDtoResponse booking, LocalDateTime now) {
+            states.get(BookingState.ALL).increment();
+            if (booking.getStart().isAfter(now)) {
+                states.get(BookingState.FUTURE).increment();
+                expireAt(booking.getStart());
+            } else if (booking.getEnd().isBefore(now)) {
+                states.get(BookingState.PAST).increment();
+            } else {
+                if (booking.getStart().isBefore(now) && booking.getEnd().isAfter(now)) {
+                    states.get(BookingState.CURRENT).increment();
+                }
+                expireAt(booking.getEnd());
+            }
+            changeStatus(booking, null, now);
+        }
+
+        void changeStatus(BookingDtoResponse booking, Status previous, LocalDateTime now) {
+            Status current = booking.getStatus();
+            if (previous == current) {
+                return;
+            }
+            boolean actionable = booking.getEnd().isAfter(now);
+            if (previous == Status.WAITING) {
+                states.get(BookingState.WAITING).decrement();
+                if (actionable) {
+                    pending.decrement();
+                }
+            } else if (previous == Status.REJECTED) {
+                states.get(BookingState.REJECTED).decrement();
+            }
+            if (current == Status.WAITING) {
+                states.get(BookingState.WAITING).increment();
+                if (actionable) {
+                    pending.increment();
+                }
+            } else if (current == Status.REJECTED) {
+                states.get(BookingState.REJECTED).increment();
+            }
+            updateNextBooking(booking, now);
+        }
+
+        private synchronized BookingDtoResponse nextBooking() {
+            return nextBooking;
+        }
+
+        private synchronized void expireAt(LocalDateTime time) {
+            validUntil = earliest(validUntil, time);
+        }
+
+        private synchronized void updateNextBooking(BookingDtoResponse booking, LocalDateTime now) {
+            if (booking.getStatus() == Status.REJECTED) {
+                if (nextBooking != null && nextBooking.getId().equals(booking.getId())) {
+                    validUntil = now;
+                }
+            } else if (booking.getStart().isAfter(now) && (nextBooking == null
+                    || booking.getStart().isBefore(nextBooking.getStart()))) {
+                nextBooking = booking;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookerItemView {
+    Long getBookerId();
+
+    Long getItemId();
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.Status;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingDtoResponse {
     private Long id;
     private LocalDateTime start;
@@ -17,4 +19,10 @@ public class BookingDtoResponse {
     private Status status;
     private UserDto booker;
     private ItemDto item;
+
+    public BookingDtoResponse(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                              Long bookerId, Long itemId, String itemName) {
+        this(id, start, end, status, UserDto.builder().id(bookerId).build(),
+                ItemDto.builder().id(itemId).name(itemName).build());
+    }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingStatsView {
+    Long getTotalCount();
+
+    Long getCurrentCount();
+
+    Long getPastCount();
+
+    Long getFutureCount();
+
+    Long getWaitingCount();
+
+    Long getRejectedCount();
+
+    Long getPendingCount();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface ItemBookingView {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    String getStatus();
+
+    Boolean getPast();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class OwnerSummaryDto {
+    private Map<BookingState, Long> states;
+    private long items;
+    private long pendingApprovals;
+    private BookingDtoResponse nextBooking;
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
 
 
 @RestControllerAdvice
@@ -67,4 +68,32 @@ public class ErrorHandler {
         log.info("Попытка оставить комментарий без бронирования.");
         return new ErrorResponse(e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse bookingOverlapException(final BookingOverlapException e) {
+        log.info("Попытка забронировать вещь на уже занятое время.");
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse wrongCursorException(final WrongCursorException e) {
+        log.info("Передан некорректный курсор пагинации.");
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse wrongImportFormatException(final WrongImportFormatException e) {
+        log.info("Передан файл импорта в неподдерживаемом формате.");
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse constraintViolationException(final ConstraintViolationException e) {
+        log.info("Переданы некорректные параметры запроса.");
+        return new ErrorResponse(e.getMessage());
+    }
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class WrongCursorException extends RuntimeException {
+    public WrongCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class WrongImportFormatException extends RuntimeException {
+    public WrongImportFormatException(String message) {
+        super(message);
+    }
+}
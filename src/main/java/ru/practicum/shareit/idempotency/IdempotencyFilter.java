@@ -0,0 +1,221 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter implements MeterBinder {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> CREATE_PATHS = Set.of("/bookings", "/bookings/batch", "/items", "/items/batch",
+            "/requests", "/users");
+
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore store;
+    private final long waitTimeout;
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyFilter(ObjectMapper objectMapper,
+                             @Value("${shareit.idempotency.capacity:10000}") int capacity,
+                             @Value("${shareit.idempotency.ttl:86400000}") long ttl,
+                             @Value("${shareit.idempotency.wait-timeout:10000}") long waitTimeout) {
+        this.objectMapper = objectMapper;
+        this.store = new IdempotencyStore(capacity, ttl, System::nanoTime);
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !CREATE_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Ключ идемпотентности должен содержать от 1 до "
+                    + MAX_KEY_LENGTH + " символов.");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String scopedKey = request.getHeader(BookingController.HEADER) + " " + request.getRequestURI() + " " + key;
+        IdempotencyStore.Entry entry = new IdempotencyStore.Entry(fingerprint(cachedRequest.body));
+        IdempotencyStore.Entry existing = store.putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            replay(existing, entry, response);
+            return;
+        }
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(cachedRequest, cachingResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            store.remove(scopedKey, entry);
+            entry.getResponse().complete(null);
+            throw e;
+        }
+        if (cachingResponse.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            store.remove(scopedKey, entry);
+            entry.getResponse().complete(null);
+        } else {
+            entry.getResponse().complete(new IdempotencyStore.StoredResponse(cachingResponse.getStatus(),
+                    cachingResponse.getContentType(), cachingResponse.getContentAsByteArray()));
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("idempotency.replays", replays, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("idempotency.conflicts", conflicts, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("idempotency.keys", store, IdempotencyStore::size)
+                .register(registry);
+    }
+
+    private void replay(IdempotencyStore.Entry existing, IdempotencyStore.Entry entry, HttpServletResponse response)
+            throws IOException {
+        if (!Arrays.equals(existing.getFingerprint(), entry.getFingerprint())) {
+            conflicts.increment();
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Ключ идемпотентности уже использован для другого запроса.");
+            return;
+        }
+        IdempotencyStore.StoredResponse stored;
+        try {
+            stored = existing.getResponse().get(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stored = null;
+        } catch (ExecutionException | TimeoutException e) {
+            stored = null;
+        }
+        if (stored == null) {
+            conflicts.increment();
+            writeError(response, HttpStatus.CONFLICT,
+                    "Запрос с этим ключом идемпотентности ещё выполняется или завершился ошибкой, повторите позже.");
+            return;
+        }
+        replays.increment();
+        log.debug("Повтор запроса по ключу идемпотентности, отдан сохранённый ответ.");
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    private static byte[] fingerprint(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+class IdempotencyStore {
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    IdempotencyStore(int capacity, long ttlMillis, LongSupplier clock) {
+        this.capacity = capacity;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.clock = clock;
+    }
+
+    synchronized Entry putIfAbsent(String key, Entry entry) {
+        long now = clock.getAsLong();
+        purgeExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        entry.expiresAt = now + ttlNanos;
+        entries.put(key, entry);
+        if (entries.size() > capacity) {
+            evictEldestCompleted();
+        }
+        return null;
+    }
+
+    synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // незавершённые записи не вытесняются: иначе повтор запроса, пришедший во время выполнения первого,
+    // не найдёт ключ и выполнится второй раз; их число ограничено числом одновременных запросов
+    private void evictEldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().response.isDone()) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt - now > 0) {
+                return;
+            }
+            if (entry.response.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Entry {
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private long expiresAt;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+    }
+}
@@ -1,63 +1,103 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.comment.CommentCursor;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
+import ru.practicum.shareit.user.CurrentUser;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
-import static ru.practicum.shareit.booking.BookingController.HEADER;
+import static ru.practicum.shareit.booking.BookingController.BATCH_LIMIT;
+import static ru.practicum.shareit.booking.BookingController.NEXT_CURSOR_HEADER;
 
 @RestController
+@Validated
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
 
     private final ItemService service;
+    private final ItemImportService importService;
 
     @PostMapping
-    public ItemDto createItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(HEADER) Long userId) {
-        return ItemMapper.toDto(service.createItem(itemDto, userId));
+    public ItemDto createItem(@Valid @RequestBody ItemDto itemDto, CurrentUser currentUser) {
+        return ItemMapper.toDto(service.createItem(itemDto, currentUser.getUser()));
+    }
+
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(@RequestBody @Size(min = 1, max = BATCH_LIMIT) List<@Valid ItemDto> itemDtos,
+                                     CurrentUser currentUser) {
+        return service.createItems(itemDtos, currentUser.getUser()).stream()
+                .map(ItemMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportReport importItemsNdjson(InputStream body, CurrentUser currentUser) {
+        return importService.importNdjson(body, currentUser.getUser());
+    }
+
+    @PostMapping(path = "/import", consumes = ItemImportService.TEXT_CSV_VALUE)
+    public ItemImportReport importItemsCsv(InputStream body, CurrentUser currentUser) {
+        return importService.importCsv(body, currentUser.getUser());
     }
 
     @PostMapping("/{itemId}/comment")
-    public CommentDto createComment(@Valid @RequestBody CommentDtoRequest comment, @RequestHeader(HEADER) Long userId,
+    public CommentDto createComment(@Valid @RequestBody CommentDtoRequest comment, CurrentUser currentUser,
                                     @PathVariable(value = "itemId") Long itemId) {
-        return CommentMapper.toDto(service.createComment(comment, userId, itemId));
+        return CommentMapper.toDto(service.createComment(comment, currentUser.getUser(), itemId));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable(value = "itemId") Long itemId,
+                                                        @RequestParam(name = "after", required = false) String after,
+                                                        @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+        List<CommentDto> comments = service.getComments(itemId, CommentCursor.decode(after), size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (comments.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, CommentCursor.of(comments.get(comments.size() - 1)).encode());
+        }
+        return response.body(comments);
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto updateItem(@RequestBody ItemDto itemDto, @RequestHeader(HEADER) Long userId,
+    public ItemDto updateItem(@RequestBody ItemDto itemDto, CurrentUser currentUser,
                               @PathVariable(value = "itemId") Long itemId) {
-        return ItemMapper.toDto(service.updateItem(itemDto, userId, itemId));
+        return ItemMapper.toDto(service.updateItem(itemDto, currentUser.getUser(), itemId));
     }
 
     @GetMapping("/{itemId}")
-    public ItemWithBookingAndComments getItemById(@RequestHeader(HEADER) Long userId, @PathVariable(value = "itemId") Long itemId) {
-        return service.getItemById(itemId, userId);
+    public ItemWithBookingAndComments getItemById(CurrentUser currentUser, @PathVariable(value = "itemId") Long itemId) {
+        return service.getItemById(itemId, currentUser.getId());
     }
 
     @GetMapping
-    public Collection<ItemWithBookingAndComments> getAllItemsByUser(@RequestHeader(HEADER) Long userId,
+    public Collection<ItemWithBookingAndComments> getAllItemsByUser(CurrentUser currentUser,
                                                                     @RequestParam(defaultValue = "1") @Min(1) Integer from,
                                                                     @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
-        return service.getAllItemsByUser(userId, from, size);
+        return service.getAllItemsByUser(currentUser.getId(), from, size);
     }
 
     @GetMapping("/search")
     public Collection<ItemDto> getAllItemsByText(@RequestParam(name = "text") String text,
                                                  @RequestParam(defaultValue = "1") @Min(1) Integer from,
                                                  @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
-        return service.getAllItemsByText(text, from, size).stream()
-                .map(s1 -> ItemMapper.toDto(s1))
-                .collect(Collectors.toList());
+        return service.getAllItemsByText(text, from, size);
     }
 }
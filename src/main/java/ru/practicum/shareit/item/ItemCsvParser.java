@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class ItemCsvParser {
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+    private static final String REQUEST_ID = "requestId";
+
+    private final int nameColumn;
+    private final int descriptionColumn;
+    private final int availableColumn;
+    private final int requestIdColumn;
+    private final int columns;
+
+    ItemCsvParser(String header) {
+        List<String> names = new ArrayList<>();
+        for (String name : split(header)) {
+            names.add(name.trim());
+        }
+        columns = names.size();
+        nameColumn = required(names, NAME);
+        descriptionColumn = required(names, DESCRIPTION);
+        availableColumn = required(names, AVAILABLE);
+        requestIdColumn = names.indexOf(REQUEST_ID);
+    }
+
+    ItemDto parse(String line) {
+        List<String> values = split(line);
+        if (values.size() != columns) {
+            throw new IllegalArgumentException("ожидалось колонок: " + columns + ", получено: " + values.size());
+        }
+        return ItemDto.builder()
+                .name(value(values, nameColumn))
+                .description(value(values, descriptionColumn))
+                .available(parseAvailable(value(values, availableColumn)))
+                .requestId(parseRequestId(requestIdColumn < 0 ? null : value(values, requestIdColumn)))
+                .build();
+    }
+
+    static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+
+    private static int required(List<String> names, String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("В заголовке нет колонки " + name);
+        }
+        return index;
+    }
+
+    private static String value(List<String> values, int column) {
+        String value = values.get(column);
+        return value.isBlank() ? null : value;
+    }
+
+    private static Boolean parseAvailable(String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            default:
+                throw new IllegalArgumentException("available должно быть true или false: " + value);
+        }
+    }
+
+    private static Long parseRequestId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("requestId должен быть числом: " + value);
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("незакрытая кавычка");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.OwnerSummaryCache;
+import ru.practicum.shareit.exceptions.WrongImportFormatException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sync.ChangeLog;
+import ru.practicum.shareit.sync.ChangeType;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ItemImportService {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ItemRepository repository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ChangeLog changeLog;
+    private final OwnerSummaryCache ownerSummary;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ItemImportService(ItemRepository repository, ItemRequestRepository itemRequestRepository,
+                             ItemSearchIndex searchIndex, ChangeLog changeLog, OwnerSummaryCache ownerSummary,
+                             Validator validator,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${shareit.import.chunk-size:500}") int chunkSize,
+                             @Value("${shareit.import.max-errors:1000}") int maxErrors) {
+        this.repository = repository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.searchIndex = searchIndex;
+        this.changeLog = changeLog;
+        this.ownerSummary = ownerSummary;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ItemImportReport importNdjson(InputStream body, User owner) {
+        return importLines(body, owner, false);
+    }
+
+    public ItemImportReport importCsv(InputStream body, User owner) {
+        return importLines(body, owner, true);
+    }
+
+    private ItemImportReport importLines(InputStream body, User owner, boolean csv) {
+        ItemImportReport report = new ItemImportReport();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            ItemCsvParser csvParser = null;
+            if (csv) {
+                String header = reader.readLine();
+                if (header == null || header.isBlank()) {
+                    throw new WrongImportFormatException("Файл импорта пуст или в нём нет заголовка.");
+                }
+                try {
+                    csvParser = new ItemCsvParser(header);
+                } catch (IllegalArgumentException e) {
+                    throw new WrongImportFormatException(e.getMessage());
+                }
+            }
+            long lineNumber = csv ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                long rowNumber = lineNumber;
+                if (csv && ItemCsvParser.hasOddQuotes(line)) {
+                    StringBuilder record = new StringBuilder(line);
+                    boolean open = true;
+                    String next;
+                    while (open && (next = reader.readLine()) != null) {
+                        lineNumber++;
+                        record.append('\n').append(next);
+                        open = !ItemCsvParser.hasOddQuotes(next);
+                    }
+                    line = record.toString();
+                }
+                ItemDto itemDto;
+                try {
+                    itemDto = csv ? csvParser.parse(line) : objectMapper.readValue(line, ItemDto.class);
+                } catch (JsonProcessingException e) {
+                    reject(report, rowNumber, e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    reject(report, rowNumber, e.getMessage());
+                    continue;
+                }
+                if (itemDto == null) {
+                    reject(report, rowNumber, "Ожидался объект предмета.");
+                    continue;
+                }
+                Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+                if (!violations.isEmpty()) {
+                    reject(report, rowNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                chunk.add(new ImportRow(rowNumber, itemDto));
+                if (chunk.size() == chunkSize) {
+                    saveChunk(chunk, owner, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, owner, report);
+        }
+        log.info("Импорт предметов пользователя {}: сохранено {}, отклонено {}.",
+                owner.getId(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void saveChunk(List<ImportRow> chunk, User owner, ItemImportReport report) {
+        List<ItemImportError> chunkErrors = new ArrayList<>();
+        List<Item> items;
+        try {
+            items = transactionTemplate.execute(status -> {
+                Set<Long> requestIds = chunk.stream()
+                        .map(row -> row.itemDto.getRequestId())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+                Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                        .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+                List<Item> newItems = new ArrayList<>(chunk.size());
+                for (ImportRow row : chunk) {
+                    Long requestId = row.itemDto.getRequestId();
+                    ItemRequest itemRequest = null;
+                    if (requestId != null) {
+                        itemRequest = requests.get(requestId);
+                        if (itemRequest == null) {
+                            chunkErrors.add(new ItemImportError(row.line,
+                                    "Запроса с таким id = " + requestId + "  не существует"));
+                            continue;
+                        }
+                    }
+                    newItems.add(ItemMapper.toItem(row.itemDto, owner, itemRequest));
+                }
+                List<Item> savedItems = repository.saveAll(newItems);
+                changeLog.recordAll(ChangeType.ITEM, savedItems.stream()
+                        .map(Item::getId)
+                        .collect(Collectors.toList()), owner.getId());
+                entityManager.flush();
+                entityManager.clear();
+                return savedItems;
+            });
+        } catch (PersistenceException | DataAccessException e) {
+            log.warn("Пакет импорта из {} строк не сохранён.", chunk.size(), e);
+            for (ImportRow row : chunk) {
+                reject(report, row.line, "Пакет не сохранён: " + e.getMessage());
+            }
+            return;
+        }
+        items.forEach(searchIndex::index);
+        ownerSummary.itemsCreated(owner.getId(), items.size());
+        report.setImported(report.getImported() + items.size());
+        chunkErrors.forEach(error -> reject(report, error.getLine(), error.getError()));
+    }
+
+    private void reject(ItemImportReport report, long line, String error) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ItemImportError(line, error));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ImportRow {
+        private final long line;
+        private final ItemDto itemDto;
+    }
+}
@@ -3,14 +3,12 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingShort;
-import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentWindow;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
-import java.util.List;
-
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemMapper {
     public static Item toItem(ItemDto itemDto, User user, ItemRequest request) {
@@ -47,7 +45,21 @@ public class ItemMapper {
     }
 
     public static ItemWithBookingAndComments toItemWithBAndC(Item item, BookingShort last, BookingShort next,
-                                                             List<CommentDto> comments) {
+                                                             CommentWindow comments) {
+        return ItemWithBookingAndComments.builder()
+                .id(item.getId())
+                .available(item.getAvailable())
+                .name(item.getName())
+                .description(item.getDescription())
+                .lastBooking(last)
+                .nextBooking(next)
+                .comments(comments.getComments())
+                .commentsCount(comments.getTotal())
+                .build();
+    }
+
+    public static ItemWithBookingAndComments toItemWithBAndC(ItemDto item, BookingShort last, BookingShort next,
+                                                             CommentWindow comments) {
         return ItemWithBookingAndComments.builder()
                 .id(item.getId())
                 .available(item.getAvailable())
@@ -55,7 +67,8 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .lastBooking(last)
                 .nextBooking(next)
-                .comments(comments)
+                .comments(comments.getComments())
+                .commentsCount(comments.getTotal())
                 .build();
     }
 }
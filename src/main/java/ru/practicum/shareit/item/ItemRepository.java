@@ -4,16 +4,34 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long userId, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i LEFT JOIN i.request r WHERE i.owner.id = ?1 ORDER BY i.id")
+    List<ItemDto> findAllByOwnerId(Long userId, Pageable pageable);
 
-    List<Item> findAllByRequest(ItemRequest request);
+    long countByOwnerId(Long userId);
 
-    @Query("SELECT i from Item i WHERE upper(i.available) LIKE upper('true') AND (upper(i.name) LIKE upper(CONCAT('%', ?1, '%')) " +
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i JOIN i.request r WHERE r.id IN ?1")
+    List<ItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i LEFT JOIN i.request r WHERE i.id IN ?1")
+    List<ItemDto> findAllDtoByIdIn(Collection<Long> ids);
+
+    List<Item> findAllByAvailableTrue();
+
+    @Query("SELECT i.owner.id FROM Item i WHERE i.id = ?1")
+    Long findOwnerIdById(Long itemId);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i LEFT JOIN i.request r WHERE upper(i.available) LIKE upper('true') " +
+            "AND (upper(i.name) LIKE upper(CONCAT('%', ?1, '%')) " +
             "OR upper(i.description) LIKE upper(CONCAT('%', ?1, '%')))")
-    List<Item> searchWithPagination(String text, Pageable pageable);
+    List<ItemDto> searchWithPagination(String text, Pageable pageable);
 }
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository repository;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String[]> documents = new ConcurrentHashMap<>();
+    private final Set<Long> touched = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+            touched.clear();
+        }
+        List<Item> items = repository.findAllByAvailableTrue();
+        synchronized (this) {
+            for (Item item : items) {
+                if (!touched.contains(item.getId())) {
+                    put(item.getId(), item.getAvailable(), item.getName(), item.getDescription());
+                }
+            }
+            loading = false;
+            touched.clear();
+        }
+        ready = true;
+        log.info("Поисковый индекс предметов построен, проиндексировано {} предметов.", documents.size());
+    }
+
+    public void index(Item item) {
+        Long id = item.getId();
+        Boolean available = item.getAvailable();
+        String name = item.getName();
+        String description = item.getDescription();
+        afterCommit(() -> {
+            synchronized (this) {
+                if (loading) {
+                    touched.add(id);
+                }
+                put(id, available, name, description);
+            }
+        });
+    }
+
+    private void put(Long id, Boolean available, String name, String description) {
+        remove(id);
+        if (!Boolean.TRUE.equals(available)) {
+            return;
+        }
+        String[] document = {normalize(name), normalize(description)};
+        documents.put(id, document);
+        for (String gram : trigrams(document)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void remove(Long itemId) {
+        String[] document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : trigrams(document)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public Optional<List<Long>> search(String text) {
+        String query = normalize(text);
+        if (!ready || query.length() < GRAM_LENGTH) {
+            return Optional.empty();
+        }
+        List<Set<Long>> candidates = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Optional.of(new ArrayList<>());
+            }
+            candidates.add(ids);
+        }
+        candidates.sort(Comparator.comparingInt(Set::size));
+        List<Long> found = new ArrayList<>();
+        for (Long id : candidates.get(0)) {
+            if (containsInAll(candidates, id) && matches(id, query)) {
+                found.add(id);
+            }
+        }
+        Collections.sort(found);
+        return Optional.of(found);
+    }
+
+    private boolean containsInAll(List<Set<Long>> candidates, Long id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            if (!candidates.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(Long id, String query) {
+        String[] document = documents.get(id);
+        if (document == null) {
+            return false;
+        }
+        for (String field : document) {
+            if (field.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> trigrams(String... fields) {
+        Set<String> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + GRAM_LENGTH <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+}
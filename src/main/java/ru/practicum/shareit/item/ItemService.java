@@ -1,22 +1,30 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentCursor;
+import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
+import ru.practicum.shareit.user.User;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
-    Item createItem(ItemDto itemDto, Long userId);
+    Item createItem(ItemDto itemDto, User owner);
 
-    Item updateItem(ItemDto itemDto, Long userId, Long itemId);
+    List<Item> createItems(List<ItemDto> itemDtos, User owner);
+
+    Item updateItem(ItemDto itemDto, User owner, Long itemId);
 
     ItemWithBookingAndComments getItemById(Long itemId, Long userId);
 
     Collection<ItemWithBookingAndComments> getAllItemsByUser(Long userId, Integer from, Integer size);
 
-    Collection<Item> getAllItemsByText(String text, Integer from, Integer size);
+    Collection<ItemDto> getAllItemsByText(String text, Integer from, Integer size);
+
+    Comment createComment(CommentDtoRequest comment, User author, Long itemId);
 
-    Comment createComment(CommentDtoRequest comment, Long authorId, Long itemId);
+    List<CommentDto> getComments(Long itemId, CommentCursor after, Integer size);
 }
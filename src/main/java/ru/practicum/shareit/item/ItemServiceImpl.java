@@ -4,11 +4,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.booking.CommentEligibilityIndex;
+import ru.practicum.shareit.booking.OwnerSummaryCache;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.WrongAuthorException;
 import ru.practicum.shareit.exceptions.WrongOwnerException;
@@ -17,14 +20,21 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sync.ChangeLog;
+import ru.practicum.shareit.sync.ChangeType;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserService;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,37 +42,72 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository repository;
-    private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final BookingTimeline bookingTimeline;
+    private final CommentEligibilityIndex commentEligibility;
     private final CommentRepository commentRepository;
+    private final CommentCache commentCache;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ChangeLog changeLog;
+    private final OwnerSummaryCache ownerSummary;
 
     @Override
     @Transactional
-    public Item createItem(ItemDto itemDto, Long userId) {
-        checkUserExist(userId);
-        User user = userService.getUserById(userId);
+    public Item createItem(ItemDto itemDto, User owner) {
         Item item;
         if (itemDto.getRequestId() != null) {
             ItemRequest itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new DataNotFoundException("Запроса с таким id = " + itemDto.getRequestId() + "  не существует"));
-            item = ItemMapper.toItem(itemDto, user, itemRequest);
+            item = ItemMapper.toItem(itemDto, owner, itemRequest);
         } else {
-            item = ItemMapper.toItemWithId(itemDto, user, itemDto.getId());
+            item = ItemMapper.toItem(itemDto, owner, null);
         }
-        return repository.save(item);
+        Item savedItem = repository.save(item);
+        changeLog.record(ChangeType.ITEM, savedItem.getId(), owner.getId());
+        searchIndex.index(savedItem);
+        ownerSummary.itemsCreated(owner.getId(), 1);
+        return savedItem;
     }
 
     @Override
     @Transactional
-    public Item updateItem(ItemDto itemDto, Long userId, Long itemId) {
+    public List<Item> createItems(List<ItemDto> itemDtos, User owner) {
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>();
+        for (ItemDto itemDto : itemDtos) {
+            ItemRequest itemRequest = null;
+            if (itemDto.getRequestId() != null) {
+                itemRequest = requests.get(itemDto.getRequestId());
+                if (itemRequest == null) {
+                    throw new DataNotFoundException("Запроса с таким id = " + itemDto.getRequestId() + "  не существует");
+                }
+            }
+            items.add(ItemMapper.toItem(itemDto, owner, itemRequest));
+        }
+        List<Item> savedItems = repository.saveAll(items);
+        changeLog.recordAll(ChangeType.ITEM, savedItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()), owner.getId());
+        savedItems.forEach(searchIndex::index);
+        ownerSummary.itemsCreated(owner.getId(), savedItems.size());
+        return savedItems;
+    }
+
+    @Override
+    @Transactional
+    public Item updateItem(ItemDto itemDto, User owner, Long itemId) {
         Item oldItem = repository.findById(itemId)
                         .orElseThrow(() -> new DataNotFoundException("Предмета с таким id = " + itemId + " не существует."));
-        if (!oldItem.getOwner().getId().equals(userId)) {
+        if (!oldItem.getOwner().getId().equals(owner.getId())) {
             throw new WrongOwnerException("Только владелец может менять данные о предмете!");
         }
-        User user = userService.getUserById(userId);
-        Item item = ItemMapper.toItemWithId(itemDto, user, itemId);
+        Item item = ItemMapper.toItemWithId(itemDto, owner, itemId);
         if (item.getName() == null) {
             item.setName(oldItem.getName());
         }
@@ -73,12 +118,13 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(oldItem.getAvailable());
         }
         repository.save(item);
+        changeLog.record(ChangeType.ITEM, itemId, owner.getId());
+        searchIndex.index(item);
         return item;
     }
 
     @Override
     public ItemWithBookingAndComments getItemById(Long itemId, Long userId) {
-        checkUserExist(userId);
         Item item = repository.findById(itemId)
                 .orElseThrow(() -> new DataNotFoundException("Предмета с таким id = " + itemId + " не существует."));
         return convertItemToItemWithBookingAndComments(item, userId);
@@ -86,68 +132,95 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Collection<ItemWithBookingAndComments> getAllItemsByUser(Long userId, Integer from, Integer size) {
-        checkUserExist(userId);
         Pageable pageable = PageRequest.of(from / size, size);
-        return repository.findAllByOwnerId(userId, pageable)
-                .stream()
-                .map(item -> convertItemToItemWithBookingAndComments(item, userId))
+        List<ItemDto> items = repository.findAllByOwnerId(userId, pageable);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, BookingShort> lastBookings = new HashMap<>();
+        Map<Long, BookingShort> nextBookings = new HashMap<>();
+        for (ItemBookingView view : bookingRepository.findLastAndNextByItemIdIn(itemIds, LocalDateTime.now(),
+                Status.REJECTED.name())) {
+            BookingShort booking = BookingMapper.toShort(view);
+            if (Boolean.TRUE.equals(view.getPast())) {
+                lastBookings.put(view.getItemId(), booking);
+            } else {
+                nextBookings.put(view.getItemId(), booking);
+            }
+        }
+        Map<Long, CommentWindow> comments = commentCache.getAll(itemIds);
+        return items.stream()
+                .map(item -> ItemMapper.toItemWithBAndC(item, lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()), comments.getOrDefault(item.getId(), CommentWindow.EMPTY)))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public Collection<Item> getAllItemsByText(String text, Integer from, Integer size) {
+    public Collection<ItemDto> getAllItemsByText(String text, Integer from, Integer size) {
         if (text.isEmpty()) {
             return new ArrayList<>();
         }
-        Pageable pageable = PageRequest.of(from / size, size);
-        return repository.searchWithPagination(text, pageable);
+        Optional<List<Long>> foundIds = searchIndex.search(text);
+        if (foundIds.isEmpty()) {
+            Pageable pageable = PageRequest.of(from / size, size);
+            return repository.searchWithPagination(text, pageable);
+        }
+        List<Long> ids = foundIds.get();
+        int offset = from / size * size;
+        if (offset >= ids.size()) {
+            return new ArrayList<>();
+        }
+        List<Long> pageIds = ids.subList(offset, Math.min(offset + size, ids.size()));
+        Map<Long, ItemDto> items = repository.findAllDtoByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
-    public Comment createComment(CommentDtoRequest comment, Long authorId, Long itemId) {
-        checkUserExist(authorId);
-        Item item = repository.findById(itemId)
-                .orElseThrow(() -> new DataNotFoundException("Предмета с таким id = " + itemId + " не существует."));
-        User user = userService.getUserById(authorId);
-        if (bookingRepository.findFirstByBookerIdAndItemIdAndEndIsBeforeOrderByEndDesc(authorId, itemId, LocalDateTime.now()) == null) {
+    public Comment createComment(CommentDtoRequest comment, User author, Long itemId) {
+        if (!commentEligibility.canComment(author.getId(), itemId)) {
+            if (!repository.existsById(itemId)) {
+                throw new DataNotFoundException("Предмета с таким id = " + itemId + " не существует.");
+            }
             throw new WrongAuthorException("Вы не можете оставить комментарий.");
-        } else {
-            return commentRepository.save(CommentMapper.toComment(comment, user, item));
         }
+        Comment savedComment = commentRepository.save(CommentMapper.toComment(comment, author,
+                repository.getReferenceById(itemId)));
+        changeLog.record(ChangeType.COMMENT, savedComment.getId(), repository.findOwnerIdById(itemId), author.getId());
+        commentCache.add(itemId, CommentMapper.toDto(savedComment));
+        return savedComment;
     }
 
-    private void checkUserExist(Long userId) {
-        try {
-            userService.getUserById(userId);
-        } catch (RuntimeException e) {
-            throw new DataNotFoundException("Пользователя с таким id = " + userId + " не существует.");
+    @Override
+    public List<CommentDto> getComments(Long itemId, CommentCursor after, Integer size) {
+        Pageable pageable = PageRequest.of(0, size);
+        List<CommentView> comments = after == null
+                ? commentRepository.findPageByItemId(itemId, pageable)
+                : commentRepository.findPageByItemIdBefore(itemId, after.getCreated(), after.getId(), pageable);
+        if (comments.isEmpty() && !repository.existsById(itemId)) {
+            throw new DataNotFoundException("Предмета с таким id = " + itemId + " не существует.");
         }
+        return comments.stream()
+                .map(CommentMapper::toDto)
+                .collect(Collectors.toList());
     }
 
+
     private ItemWithBookingAndComments convertItemToItemWithBookingAndComments(Item item, Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking = bookingRepository.findFirstByItemIdAndStartIsBeforeOrStartEqualsOrderByStartDesc(
-                item.getId(), now, now);
-        Booking nextBooking = bookingRepository.findFirstByItemIdAndStartIsAfterOrderByStart(item.getId(), now);
         BookingShort last = null;
         BookingShort next = null;
-        if (lastBooking != null && lastBooking.getStatus() != Status.REJECTED) {
-            last = BookingMapper.toShort(lastBooking);
-        }
-        if (nextBooking != null && nextBooking.getStatus() != Status.REJECTED) {
-            next = BookingMapper.toShort(nextBooking);
-        }
-        if (!userId.equals(item.getOwner().getId())) {
-            last = null;
-            next = null;
-        }
-        List<CommentDto> comments = commentRepository.findAllByItem(item).stream()
-                .map(CommentMapper::toDto)
-                .collect(Collectors.toList());
-        if (comments.isEmpty()) {
-            comments = new ArrayList<>();
+        if (userId.equals(item.getOwner().getId())) {
+            LocalDateTime now = LocalDateTime.now();
+            last = bookingTimeline.findLast(item.getId(), now);
+            next = bookingTimeline.findNext(item.getId(), now);
         }
-        return ItemMapper.toItemWithBAndC(item, last, next, comments);
+        return ItemMapper.toItemWithBAndC(item, last, next, commentCache.get(item.getId()));
     }
 }
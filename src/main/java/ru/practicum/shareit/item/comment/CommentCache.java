@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class CommentCache implements MeterBinder {
+
+    private final CommentRepository repository;
+    private final int window;
+    private final int capacity;
+    private final Map<Long, CommentWindow> windows;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long writes;
+
+    public CommentCache(CommentRepository repository,
+                        @Value("${shareit.comments.window:10}") int window,
+                        @Value("${shareit.cache.comments.capacity:10000}") int capacity) {
+        this.repository = repository;
+        this.window = window;
+        this.capacity = capacity;
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CommentWindow> eldest) {
+                if (size() > CommentCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CommentWindow get(Long itemId) {
+        return getAll(List.of(itemId)).get(itemId);
+    }
+
+    public Map<Long, CommentWindow> getAll(Collection<Long> itemIds) {
+        Map<Long, CommentWindow> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long version;
+        synchronized (this) {
+            for (Long itemId : itemIds) {
+                CommentWindow cached = windows.get(itemId);
+                if (cached != null) {
+                    found.put(itemId, cached);
+                } else {
+                    missing.add(itemId);
+                }
+            }
+            version = writes;
+        }
+        hits.add(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        misses.add(missing.size());
+        Map<Long, List<CommentDto>> comments = new HashMap<>();
+        Map<Long, Long> totals = new HashMap<>();
+        for (CommentWindowView view : repository.findNewestByItemIdIn(missing, window)) {
+            comments.computeIfAbsent(view.getItemId(), id -> new ArrayList<>()).add(CommentMapper.toDto(view));
+            totals.put(view.getItemId(), view.getTotal());
+        }
+        Map<Long, CommentWindow> loaded = new HashMap<>();
+        for (Long itemId : missing) {
+            List<CommentDto> newest = comments.get(itemId);
+            loaded.put(itemId, newest == null ? CommentWindow.EMPTY : new CommentWindow(newest, totals.get(itemId)));
+        }
+        synchronized (this) {
+            if (writes == version) {
+                windows.putAll(loaded);
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public void add(Long itemId, CommentDto comment) {
+        afterCommit(() -> {
+            synchronized (this) {
+                writes++;
+                CommentWindow cached = windows.get(itemId);
+                if (cached != null && !cached.contains(comment.getId())) {
+                    windows.put(itemId, cached.with(comment, window));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "comments", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "comments", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", "comments")
+                .register(registry);
+        Gauge.builder("cache.size", this, CommentCache::size)
+                .tags("cache", "comments")
+                .register(registry);
+    }
+
+    public synchronized int size() {
+        return windows.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -26,4 +26,13 @@ public class CommentMapper {
                 .created(comment.getCreated())
                 .build();
     }
+
+    public static CommentDto toDto(CommentView comment) {
+        return CommentDto.builder()
+                .text(comment.getText())
+                .id(comment.getId())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
 }
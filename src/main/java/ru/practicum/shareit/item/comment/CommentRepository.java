@@ -1,10 +1,35 @@
 package ru.practicum.shareit.item.comment;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.item.Item;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem(Item item);
+    @Query("SELECT c.item.id AS itemId, c.id AS id, c.text AS text, a.name AS authorName, c.created AS created " +
+            "FROM Comment c JOIN c.author a WHERE c.id IN ?1")
+    List<CommentView> findAllViewByIdIn(Collection<Long> ids);
+
+    @Query("SELECT c.item.id AS itemId, c.id AS id, c.text AS text, a.name AS authorName, c.created AS created " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id = ?1 ORDER BY c.created DESC, c.id DESC")
+    List<CommentView> findPageByItemId(Long itemId, Pageable pageable);
+
+    @Query("SELECT c.item.id AS itemId, c.id AS id, c.text AS text, a.name AS authorName, c.created AS created " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id = ?1 " +
+            "AND (c.created < ?2 OR (c.created = ?2 AND c.id < ?3)) ORDER BY c.created DESC, c.id DESC")
+    List<CommentView> findPageByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query(value = "SELECT t.item_id AS itemId, t.id AS id, t.text AS text, t.author_name AS authorName, " +
+            "t.created AS created, t.total AS total " +
+            "FROM (SELECT c.item_id, c.id, c.text, u.name AS author_name, c.created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn, " +
+            "COUNT(*) OVER (PARTITION BY c.item_id) AS total " +
+            "FROM comments c JOIN users u ON u.id = c.author_id WHERE c.item_id IN (:itemIds)) t " +
+            "WHERE t.rn <= :limit ORDER BY t.item_id, t.rn", nativeQuery = true)
+    List<CommentWindowView> findNewestByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                 @Param("limit") int limit);
 }
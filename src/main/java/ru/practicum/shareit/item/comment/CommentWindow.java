@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@ToString
+public class CommentWindow {
+    public static final CommentWindow EMPTY = new CommentWindow(List.of(), 0);
+
+    private final List<CommentDto> comments;
+    private final long total;
+
+    public CommentWindow(List<CommentDto> comments, long total) {
+        this.comments = Collections.unmodifiableList(comments);
+        this.total = total;
+    }
+
+    boolean contains(Long commentId) {
+        for (CommentDto comment : comments) {
+            if (comment.getId().equals(commentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    CommentWindow with(CommentDto comment, int limit) {
+        List<CommentDto> newest = new ArrayList<>(Math.min(comments.size() + 1, limit));
+        newest.add(comment);
+        for (int i = 0; i < comments.size() && newest.size() < limit; i++) {
+            newest.add(comments.get(i));
+        }
+        return new CommentWindow(newest, total + 1);
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.item.comment;
+
+public interface CommentWindowView extends CommentView {
+    Long getTotal();
+}
@@ -5,14 +5,18 @@ import lombok.*;
 import org.springframework.lang.Nullable;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class ItemDto {
     private Long id;
     @NotBlank
+    @Size(max = 64)
     private String name;
     @NotBlank
+    @Size(max = 512)
     private String description;
     @NotNull
     private Boolean available;
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ItemImportReport {
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private List<ItemImportError> errors = new ArrayList<>();
+}
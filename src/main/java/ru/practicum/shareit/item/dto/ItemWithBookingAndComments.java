@@ -18,4 +18,5 @@ public class ItemWithBookingAndComments {
     private BookingShort lastBooking;
     private BookingShort nextBooking;
     private List<CommentDto> comments;
+    private Long commentsCount;
 }
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+
+    @Autowired
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  @Value("${shareit.concurrency.min-limit:4}") int minLimit,
+                                  @Value("${shareit.concurrency.read.initial-limit:50}") int readInitialLimit,
+                                  @Value("${shareit.concurrency.read.max-limit:200}") int readMaxLimit,
+                                  @Value("${shareit.concurrency.read.latency-threshold:500}") long readLatencyThreshold,
+                                  @Value("${shareit.concurrency.write.initial-limit:20}") int writeInitialLimit,
+                                  @Value("${shareit.concurrency.write.max-limit:100}") int writeMaxLimit,
+                                  @Value("${shareit.concurrency.write.latency-threshold:1000}") long writeLatencyThreshold) {
+        this(objectMapper,
+                new ConcurrencyLimiter(readInitialLimit, minLimit, readMaxLimit, readLatencyThreshold),
+                new ConcurrencyLimiter(writeInitialLimit, minLimit, writeMaxLimit, writeLatencyThreshold));
+    }
+
+    ConcurrencyLimitFilter(ObjectMapper objectMapper, ConcurrencyLimiter readLimiter, ConcurrencyLimiter writeLimiter) {
+        this.objectMapper = objectMapper;
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/bookings/events") || path.endsWith("/export") || path.equals("/items/import")
+                || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter limiter = "GET".equals(request.getMethod()) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            log.debug("Запрос {} {} отклонён: достигнут лимит одновременных запросов {}.", request.getMethod(),
+                    request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse("Сервис перегружен, повторите запрос позже."));
+            return;
+        }
+        long startedAt = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(System.nanoTime() - startedAt, failed);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "read", readLimiter);
+        bind(registry, "write", writeLimiter);
+    }
+
+    private void bind(MeterRegistry registry, String type, ConcurrencyLimiter limiter) {
+        Gauge.builder("concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .tags("type", type)
+                .register(registry);
+        Gauge.builder("concurrency.inflight", limiter, ConcurrencyLimiter::getInFlight)
+                .tags("type", type)
+                .register(registry);
+        FunctionCounter.builder("concurrency.rejected", limiter, ConcurrencyLimiter::getRejected)
+                .tags("type", type)
+                .register(registry);
+    }
+}
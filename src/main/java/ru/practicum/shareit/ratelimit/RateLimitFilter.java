@@ -0,0 +1,125 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+    private final Map<RateLimitRoute, RateLimiter> limiters = new EnumMap<>(RateLimitRoute.class);
+    private final Map<RateLimitRoute, LongAdder> throttled = new EnumMap<>(RateLimitRoute.class);
+
+    @Autowired
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           @Value("${shareit.rate-limit.search.rate:10}") double searchRate,
+                           @Value("${shareit.rate-limit.search.burst:20}") int searchBurst,
+                           @Value("${shareit.rate-limit.booking-write.rate:5}") double bookingWriteRate,
+                           @Value("${shareit.rate-limit.booking-write.burst:10}") int bookingWriteBurst,
+                           @Value("${shareit.rate-limit.feed.rate:2}") double feedRate,
+                           @Value("${shareit.rate-limit.feed.burst:5}") int feedBurst) {
+        this(objectMapper, searchRate, searchBurst, bookingWriteRate, bookingWriteBurst, feedRate, feedBurst,
+                System::nanoTime);
+    }
+
+    RateLimitFilter(ObjectMapper objectMapper, double searchRate, int searchBurst, double bookingWriteRate,
+                    int bookingWriteBurst, double feedRate, int feedBurst, LongSupplier clock) {
+        this.objectMapper = objectMapper;
+        limiters.put(RateLimitRoute.SEARCH, new RateLimiter(searchRate, searchBurst, clock));
+        limiters.put(RateLimitRoute.BOOKING_WRITE, new RateLimiter(bookingWriteRate, bookingWriteBurst, clock));
+        limiters.put(RateLimitRoute.FEED, new RateLimiter(feedRate, feedBurst, clock));
+        for (RateLimitRoute route : RateLimitRoute.values()) {
+            throttled.put(route, new LongAdder());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitRoute route = RateLimitRoute.of(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String client = client(request);
+        long waitNanos = limiters.get(route).tryAcquire(client);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        throttled.get(route).increment();
+        log.debug("Клиент {} превысил лимит запросов {}.", client, route);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitNanos + 999_999_999L) / 1_000_000_000L));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse("Слишком много запросов, повторите позже."));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.rate-limit.eviction-interval:60000}")
+    public void evictIdle() {
+        int evicted = 0;
+        for (RateLimiter limiter : limiters.values()) {
+            evicted += limiter.evictIdle();
+        }
+        log.debug("Удалено {} неактивных счётчиков лимита запросов.", evicted);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        throttled.forEach((route, counter) -> FunctionCounter.builder("ratelimit.throttled", counter, LongAdder::sum)
+                .tags("route", route.name().toLowerCase(Locale.ROOT))
+                .register(registry));
+        limiters.forEach((route, limiter) -> Gauge.builder("ratelimit.buckets", limiter, RateLimiter::size)
+                .tags("route", route.name().toLowerCase(Locale.ROOT))
+                .register(registry));
+    }
+
+    private static String client(HttpServletRequest request) {
+        Long userId = parseUserId(request.getHeader(BookingController.HEADER));
+        return userId == null ? "addr:" + request.getRemoteAddr() : "user:" + userId;
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
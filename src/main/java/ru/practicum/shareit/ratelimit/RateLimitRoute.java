@@ -0,0 +1,27 @@
+package ru.practicum.shareit.ratelimit;
+
+public enum RateLimitRoute {
+    SEARCH,
+    BOOKING_WRITE,
+    FEED;
+
+    public static RateLimitRoute of(String method, String path) {
+        switch (method) {
+            case "GET":
+                if (path.equals("/items/search") || path.equals("/requests/all")) {
+                    return SEARCH;
+                }
+                if (path.equals("/sync") || path.equals("/bookings/events") || path.equals("/bookings/export")
+                        || path.equals("/bookings/owner/export")) {
+                    return FEED;
+                }
+                return null;
+            case "POST":
+                return path.equals("/bookings") || path.equals("/bookings/batch") ? BOOKING_WRITE : null;
+            case "PATCH":
+                return path.startsWith("/bookings/") ? BOOKING_WRITE : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+class RateLimiter {
+
+    private final long emissionInterval;
+    private final long tolerance;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    RateLimiter(double ratePerSecond, int burst, LongSupplier clock) {
+        this.emissionInterval = (long) (1_000_000_000L / ratePerSecond);
+        this.tolerance = emissionInterval * burst;
+        this.clock = clock;
+    }
+
+    long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long nextArrival = (arrival - now < 0 ? now : arrival) + emissionInterval;
+            long waitNanos = nextArrival - tolerance - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(arrival, nextArrival)) {
+                return 0;
+            }
+        }
+    }
+
+    int evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.user.CurrentUser;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
@@ -21,28 +22,28 @@ public class ItemRequestController {
     private final ItemRequestService service;
 
     @PostMapping
-    public ItemRequest createRequest(@RequestHeader(HEADER) Long userId,
+    public ItemRequest createRequest(CurrentUser currentUser,
                                   @Valid @RequestBody ItemRequestDto itemRequestDto) {
         LocalDateTime now = LocalDateTime.now();
-        return service.createRequest(userId, itemRequestDto, now);
+        return service.createRequest(currentUser.getUser(), itemRequestDto, now);
     }
 
     @GetMapping
-    public List<ItemRequestDtoResponse> getAllRequests(@RequestHeader(HEADER) Long userId) {
-        return service.getAllRequests(userId);
+    public List<ItemRequestDtoResponse> getAllRequests(CurrentUser currentUser) {
+        return service.getAllRequests(currentUser.getId());
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoResponse> getRequestsFromOtherUsers(@RequestHeader(HEADER) Long userId,
+    public List<ItemRequestDtoResponse> getRequestsFromOtherUsers(CurrentUser currentUser,
                                                                  @RequestParam(defaultValue = "1") @Min(1) Integer from,
                                                                  @RequestParam(defaultValue = "20") @Min(1) @Max(20) Integer size) {
 
-        return service.getRequestsFromOtherUsers(userId, from, size);
+        return service.getRequestsFromOtherUsers(currentUser.getId(), from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDtoResponse getItemRequest(@PathVariable Long requestId, @RequestHeader(HEADER) Long userId) {
-        return service.getItemRequest(requestId, userId);
+    public ItemRequestDtoResponse getItemRequest(@PathVariable Long requestId, CurrentUser currentUser) {
+        return service.getItemRequest(requestId, currentUser.getId());
     }
 
 }
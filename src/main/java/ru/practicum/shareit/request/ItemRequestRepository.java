@@ -2,13 +2,18 @@ package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.user.User;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterOrderByCreatedDesc(User user);
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemRequestDtoResponse(r.id, r.description, r.created) " +
+            "FROM ItemRequest r WHERE r.requester.id = ?1 ORDER BY r.created DESC")
+    List<ItemRequestDtoResponse> findAllByRequesterIdOrderByCreatedDesc(Long userId);
 
-    List<ItemRequest> findAllByRequesterNotOrderByCreatedDesc(User user, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemRequestDtoResponse(r.id, r.description, r.created) " +
+            "FROM ItemRequest r WHERE r.requester.id <> ?1 ORDER BY r.created DESC")
+    List<ItemRequestDtoResponse> findAllByRequesterIdNotOrderByCreatedDesc(Long userId, Pageable pageable);
 }
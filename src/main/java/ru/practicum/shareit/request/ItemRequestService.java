@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,5 +15,5 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoResponse> getRequestsFromOtherUsers(Long userId, Integer from, Integer size);
 
-    ItemRequest createRequest(Long userId, ItemRequestDto request, LocalDateTime time);
+    ItemRequest createRequest(User requester, ItemRequestDto request, LocalDateTime time);
 }
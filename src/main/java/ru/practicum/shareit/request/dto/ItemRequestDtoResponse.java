@@ -4,6 +4,7 @@ import lombok.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -15,4 +16,8 @@ public class ItemRequestDtoResponse {
     private String description;
     private LocalDateTime created;
     private List<ItemDto> items;
+
+    public ItemRequestDtoResponse(Long id, String description, LocalDateTime created) {
+        this(id, description, created, new ArrayList<>());
+    }
 }
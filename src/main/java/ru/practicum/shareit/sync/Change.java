@@ -0,0 +1,26 @@
+package ru.practicum.shareit.sync;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "changes")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Change {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "changes_seq")
+    @SequenceGenerator(name = "changes_seq", sequenceName = "changes_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "user_id")
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type")
+    private ChangeType type;
+    @Column(name = "entity_id")
+    private Long entityId;
+    private Long position;
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.sync;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class ChangeLog {
+
+    private final ChangeRepository repository;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(ChangeType type, Long entityId, Long... userIds) {
+        Set<Long> recipients = new LinkedHashSet<>(List.of(userIds));
+        List<Change> changes = new ArrayList<>(recipients.size());
+        for (Long userId : recipients) {
+            changes.add(new Change(null, userId, type, entityId, null));
+        }
+        save(changes);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordAll(ChangeType type, Collection<Long> entityIds, Long userId) {
+        List<Change> changes = new ArrayList<>(entityIds.size());
+        for (Long entityId : entityIds) {
+            changes.add(new Change(null, userId, type, entityId, null));
+        }
+        save(changes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void save(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            assignAndSave(changes);
+            return;
+        }
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Change> buffer = new ArrayList<>();
+            pending = buffer;
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    assignAndSave(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+                }
+            });
+        }
+        pending.addAll(changes);
+    }
+
+    // позиции выдаются перед фиксацией под блокировкой строки счётчика, которая держится до коммита,
+    // поэтому порядок позиций совпадает с порядком коммитов и курсор клиента не перескакивает чужие изменения
+    private void assignAndSave(List<Change> changes) {
+        repository.advanceCursor(changes.size());
+        long position = repository.findCursor() - changes.size();
+        for (Change change : changes) {
+            change.setPosition(++position);
+        }
+        repository.saveAll(changes);
+    }
+}
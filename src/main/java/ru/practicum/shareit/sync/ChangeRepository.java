@@ -0,0 +1,20 @@
+package ru.practicum.shareit.sync;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ChangeRepository extends JpaRepository<Change, Long> {
+    List<Change> findAllByUserIdAndPositionGreaterThanOrderByPosition(Long userId, Long position, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE change_cursor SET position = position + :count WHERE id = 1", nativeQuery = true)
+    void advanceCursor(@Param("count") long count);
+
+    @Query(value = "SELECT position FROM change_cursor WHERE id = 1", nativeQuery = true)
+    long findCursor();
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.sync;
+
+public enum ChangeType {
+    ITEM,
+    BOOKING,
+    COMMENT
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.sync;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.sync.dto.SyncDto;
+import ru.practicum.shareit.user.CurrentUser;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+@RestController
+@Validated
+@RequestMapping(path = "/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService service;
+
+    @GetMapping
+    public SyncDto getChanges(CurrentUser currentUser,
+                              @RequestParam(name = "since", defaultValue = "0") @Min(0) Long since,
+                              @RequestParam(defaultValue = "100") @Min(1) @Max(500) Integer size) {
+        return service.getChanges(currentUser.getId(), since, size);
+    }
+}
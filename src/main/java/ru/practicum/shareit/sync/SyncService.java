@@ -0,0 +1,7 @@
+package ru.practicum.shareit.sync;
+
+import ru.practicum.shareit.sync.dto.SyncDto;
+
+public interface SyncService {
+    SyncDto getChanges(Long userId, Long since, Integer size);
+}
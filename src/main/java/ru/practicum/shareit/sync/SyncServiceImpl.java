@@ -0,0 +1,65 @@
+package ru.practicum.shareit.sync;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.CommentView;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.sync.dto.SyncDto;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SyncServiceImpl implements SyncService {
+
+    private final ChangeRepository repository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    @Override
+    public SyncDto getChanges(Long userId, Long since, Integer size) {
+        List<Change> changes = repository.findAllByUserIdAndPositionGreaterThanOrderByPosition(userId, since,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+        Map<ChangeType, Set<Long>> changed = new EnumMap<>(ChangeType.class);
+        for (ChangeType type : ChangeType.values()) {
+            changed.put(type, new LinkedHashSet<>());
+        }
+        changes.forEach(change -> changed.get(change.getType()).add(change.getEntityId()));
+
+        Set<Long> itemIds = changed.get(ChangeType.ITEM);
+        Set<Long> bookingIds = changed.get(ChangeType.BOOKING);
+        Set<Long> commentIds = changed.get(ChangeType.COMMENT);
+        List<ItemDto> items = itemIds.isEmpty() ? new ArrayList<>() : itemRepository.findAllDtoByIdIn(itemIds);
+        List<BookingDtoResponse> bookings = bookingIds.isEmpty()
+                ? new ArrayList<>() : bookingRepository.findAllDtoByIdIn(bookingIds);
+        Map<Long, List<CommentDto>> comments = commentIds.isEmpty() ? Map.of()
+                : commentRepository.findAllViewByIdIn(commentIds).stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
+                        Collectors.mapping(CommentMapper::toDto, Collectors.toList())));
+        return SyncDto.builder()
+                .cursor(changes.isEmpty() ? since : changes.get(changes.size() - 1).getPosition())
+                .hasMore(hasMore)
+                .items(items)
+                .bookings(bookings)
+                .comments(comments)
+                .build();
+    }
+}
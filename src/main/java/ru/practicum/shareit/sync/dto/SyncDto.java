@@ -0,0 +1,22 @@
+package ru.practicum.shareit.sync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SyncDto {
+    private Long cursor;
+    private boolean hasMore;
+    private List<ItemDto> items;
+    private List<BookingDtoResponse> bookings;
+    private Map<Long, List<CommentDto>> comments;
+}
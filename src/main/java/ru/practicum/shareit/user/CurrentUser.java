@@ -0,0 +1,39 @@
+package ru.practicum.shareit.user;
+
+import lombok.ToString;
+import ru.practicum.shareit.exceptions.DataNotFoundException;
+
+@ToString(of = "id")
+public class CurrentUser {
+    private final Long id;
+    private final UserCache userCache;
+    private boolean verified;
+    private User user;
+
+    CurrentUser(Long id, UserCache userCache) {
+        this.id = id;
+        this.userCache = userCache;
+    }
+
+    public Long getId() {
+        if (!verified) {
+            if (!userCache.exists(id)) {
+                throw notFound();
+            }
+            verified = true;
+        }
+        return id;
+    }
+
+    public User getUser() {
+        if (user == null) {
+            user = userCache.get(id).orElseThrow(this::notFound);
+            verified = true;
+        }
+        return user;
+    }
+
+    private DataNotFoundException notFound() {
+        return new DataNotFoundException("Пользователя с таким id = " + id + " не существует.");
+    }
+}
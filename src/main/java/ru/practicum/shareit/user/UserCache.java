@@ -0,0 +1,193 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class UserCache implements MeterBinder {
+
+    private final UserRepository repository;
+    private final int capacity;
+    private final Map<Long, User> users;
+    private final BitSet ids = new BitSet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long writes;
+
+    public UserCache(UserRepository repository, @Value("${shareit.cache.users.capacity:10000}") int capacity) {
+        this.repository = repository;
+        this.capacity = capacity;
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, User> eldest) {
+                if (size() > UserCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long version = version();
+        int count = 0;
+        for (Long id : repository.findAllIds()) {
+            markExisting(id, version);
+            count++;
+        }
+        log.info("Загружено {} идентификаторов пользователей.", count);
+    }
+
+    public Optional<User> get(Long id) {
+        long version;
+        synchronized (this) {
+            User user = users.get(id);
+            if (user != null) {
+                hits.increment();
+                return Optional.of(copy(user));
+            }
+            version = writes;
+        }
+        misses.increment();
+        Optional<User> found = repository.findById(id);
+        found.ifPresent(user -> storeIfUnchanged(id, copy(user), version));
+        return found.map(this::copy);
+    }
+
+    public boolean exists(Long id) {
+        long version;
+        synchronized (this) {
+            if (isIndexable(id) && ids.get(id.intValue())) {
+                return true;
+            }
+            version = writes;
+        }
+        if (repository.existsById(id)) {
+            markExisting(id, version);
+            return true;
+        }
+        return false;
+    }
+
+    public void put(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        User cached = copy(user);
+        afterCommit(() -> store(cached.getId(), cached));
+    }
+
+    public void evict(Long id) {
+        invalidate(id);
+        afterCommit(() -> invalidate(id));
+    }
+
+    public void remove(Long id) {
+        invalidate(id);
+        afterCommit(() -> {
+            synchronized (this) {
+                writes++;
+                users.remove(id);
+                if (isIndexable(id)) {
+                    ids.clear(id.intValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "users", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "users", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", "users")
+                .register(registry);
+        Gauge.builder("cache.size", this, UserCache::size)
+                .tags("cache", "users")
+                .register(registry);
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    private synchronized void store(Long id, User user) {
+        writes++;
+        users.put(id, user);
+        if (isIndexable(id)) {
+            ids.set(id.intValue());
+        }
+    }
+
+    private synchronized void storeIfUnchanged(Long id, User user, long version) {
+        if (writes == version) {
+            users.put(id, user);
+            if (isIndexable(id)) {
+                ids.set(id.intValue());
+            }
+        }
+    }
+
+    private synchronized void invalidate(Long id) {
+        writes++;
+        users.remove(id);
+    }
+
+    private synchronized void markExisting(Long id, long version) {
+        if (writes == version && isIndexable(id)) {
+            ids.set(id.intValue());
+        }
+    }
+
+    private synchronized long version() {
+        return writes;
+    }
+
+    private boolean isIndexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -6,7 +6,6 @@ import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 
 @RestController
@@ -36,9 +35,7 @@ public class UserController {
 
     @GetMapping
     public Collection<UserDto> getAllUsers() {
-        return service.getAllUsers().stream()
-                .map(s1 -> UserMapper.toDto(s1))
-                .collect(Collectors.toList());
+        return service.getAllUsers();
     }
 
     @DeleteMapping("/{userId}")
@@ -1,8 +1,17 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    List<UserDto> findAllDto();
+
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.user;
 
 
+import ru.practicum.shareit.user.dto.UserDto;
+
 import java.util.Collection;
 
 public interface UserService {
-    Collection<User> getAllUsers();
+    Collection<UserDto> getAllUsers();
 
     User createUser(User user);
 
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.transaction.Transactional;
 import java.util.Collection;
@@ -12,11 +13,14 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final UserCache cache;
 
     @Override
     @Transactional
     public User createUser(User user) {
-        return repository.save(user);
+        User savedUser = repository.save(user);
+        cache.put(savedUser);
+        return savedUser;
     }
 
     @Override
@@ -31,28 +35,30 @@ public class UserServiceImpl implements UserService {
             user.setEmail(oldUser.getEmail());
         }
         repository.save(user);
+        cache.evict(user.getId());
         return user;
     }
 
     @Override
     public User getUserById(Long id) {
-        return repository.findById(id)
+        return cache.get(id)
                         .orElseThrow(() -> new DataNotFoundException("Пользователя с таким id = " + id + " не существует."));
     }
 
     @Override
-    public Collection<User> getAllUsers() {
-        return repository.findAll();
+    public Collection<UserDto> getAllUsers() {
+        return repository.findAllDto();
     }
 
     @Override
     @Transactional
     public void deleteUser(Long userId) {
         repository.deleteById(userId);
+        cache.remove(userId);
     }
 
     private void checkUserExist(Long userId) {
-        if (!repository.existsById(userId)) {
+        if (!cache.exists(userId)) {
             throw new DataNotFoundException("Пользователя с таким id = " + userId + " не существует.");
         }
     }
@@ -7,6 +7,7 @@ import javax.validation.constraints.NotBlank;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class UserDto {
     private Long id;
     @NotBlank
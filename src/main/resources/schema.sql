@@ -1,7 +1,14 @@
 DROP ALL OBJECTS;
 
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS changes_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT NOT NULL,
   name VARCHAR(32) NOT NULL,
   email VARCHAR(32) NOT NULL,
   CONSTRAINT pk_user PRIMARY KEY (id),
@@ -9,7 +16,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS requests (
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  description VARCHAR(512) NOT NULL,
  created DATETIME NOT NULL,
  requester_id BIGINT REFERENCES users(id),
@@ -19,7 +26,7 @@ CREATE TABLE IF NOT EXISTS requests (
 );
 
 CREATE TABLE IF NOT EXISTS items (
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  name VARCHAR(64) NOT NULL,
  description VARCHAR(512) NOT NULL,
  is_available BOOLEAN NOT NULL,
@@ -32,22 +39,51 @@ CREATE TABLE IF NOT EXISTS items (
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  start_date TIMESTAMP,
  end_date TIMESTAMP,
  item_id BIGINT REFERENCES items(id),
  booker_id BIGINT REFERENCES users(id),
  status varchar(16),
+ CONSTRAINT pk_booking PRIMARY KEY (id),
  FOREIGN KEY (item_id) REFERENCES items(id),
  FOREIGN KEY (booker_id) REFERENCES users(id)
 );
 
 CREATE TABLE IF NOT EXISTS comments (
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  text varchar(2048),
  item_id BIGINT REFERENCES items(id),
  author_id BIGINT REFERENCES users(id),
  created TIMESTAMP,
+ CONSTRAINT pk_comment PRIMARY KEY (id),
  FOREIGN KEY (item_id) REFERENCES items(id),
  FOREIGN KEY (author_id) REFERENCES users(id)
 );
+
+CREATE TABLE IF NOT EXISTS changes (
+ id BIGINT NOT NULL,
+ user_id BIGINT NOT NULL,
+ entity_type varchar(16) NOT NULL,
+ entity_id BIGINT NOT NULL,
+ position BIGINT NOT NULL,
+ CONSTRAINT pk_change PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS change_cursor (
+ id INT NOT NULL,
+ position BIGINT NOT NULL,
+ CONSTRAINT pk_change_cursor PRIMARY KEY (id)
+);
+
+INSERT INTO change_cursor (id, position) VALUES (1, 0);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status ON bookings (item_id, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date);
+CREATE INDEX IF NOT EXISTS idx_items_user ON items (user_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_changes_user ON changes (user_id, position);
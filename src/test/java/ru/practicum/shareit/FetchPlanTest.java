@@ -0,0 +1,339 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDtoRequest;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.sync.ChangeRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class FetchPlanTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ChangeRepository changeRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Anton")
+                .email("owner@mail.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("Ivan")
+                .email("booker@mail.ru")
+                .build());
+        request = itemRequestRepository.save(ItemRequest.builder()
+                .description("нужен ноутбук")
+                .requester(booker)
+                .created(LocalDateTime.now().minusDays(5))
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("ноутбук")
+                .description("мощный ноутбук")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+        booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(Status.APPROVED)
+                .build());
+        commentRepository.save(Comment.builder()
+                .item(item)
+                .author(booker)
+                .text("отличный ноутбук")
+                .created(LocalDateTime.now())
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAllInBatch();
+        bookingRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+        itemRequestRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        changeRepository.deleteAllInBatch();
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingFetchesItemAndBookerInOneStatement() {
+        mockMvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header(HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").value(item.getName()))
+                .andExpect(jsonPath("$.booker.id").value(booker.getId()));
+        assertStatements(2);
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingsByBookerReadsProjectionOnly() {
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value(item.getName()));
+        assertStatements(2);
+        assertEquals(0, statistics.getEntityLoadCount(), "список бронирований загружает сущности.");
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemsByOwnerBatchesBookingsAndComments() {
+        mockMvc.perform(get("/items")
+                        .header(HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastBooking.id").value(booking.getId()))
+                .andExpect(jsonPath("$[0].comments[0].authorName").value(booker.getName()));
+        assertStatements(4);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemByIdDoesNotFollowOwnerOrRequest() {
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.bookerId").value(booker.getId()))
+                .andExpect(jsonPath("$.comments[0].authorName").value(booker.getName()));
+        assertStatements(4);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemByIdServesBookingsAndCommentsFromMemoryOnRepeat() {
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(HEADER, owner.getId()))
+                .andExpect(status().isOk());
+        long firstView = statistics.getPrepareStatementCount();
+        statistics.clear();
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.id").value(booking.getId()))
+                .andExpect(jsonPath("$.commentsCount").value(1));
+        assertStatementsAtMost(firstView - 2);
+    }
+
+    @SneakyThrows
+    @Test
+    void getRequestsAttachesItemsInOneStatement() {
+        mockMvc.perform(get("/requests")
+                        .header(HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].items[0].id").value(item.getId()));
+        assertStatements(3);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsersReadsProjectionOnly() {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        assertStatements(1);
+        assertEquals(0, statistics.getEntityLoadCount(), "список пользователей загружает сущности.");
+    }
+
+    @SneakyThrows
+    @Test
+    void createBookingSkipsReloadAfterSave() {
+        BookingDtoRequest bookingDto = BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        mockMvc.perform(post("/bookings")
+                        .header(HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").value(item.getName()));
+        assertStatementsAtMost(7);
+    }
+
+    @SneakyThrows
+    @Test
+    void changeStatusUpdatesWithoutUserReload() {
+        mockMvc.perform(patch("/bookings/{bookingId}", booking.getId())
+                        .header(HEADER, owner.getId())
+                        .param("approved", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(Status.REJECTED.name()));
+        assertStatementsAtMost(7);
+    }
+
+    @SneakyThrows
+    @Test
+    void createItemInsertsOnce() {
+        ItemDto itemDto = ItemDto.builder()
+                .name("мышь")
+                .description("игровая мышь")
+                .available(true)
+                .requestId(request.getId())
+                .build();
+        mockMvc.perform(post("/items")
+                        .header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(itemDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestId").value(request.getId()));
+        assertStatementsAtMost(7);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItemMergesIntoLoadedItem() {
+        ItemDto itemDto = ItemDto.builder()
+                .name("ноутбук 2")
+                .build();
+        mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(itemDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("ноутбук 2"));
+        assertStatementsAtMost(7);
+    }
+
+    @SneakyThrows
+    @Test
+    void createCommentUsesItemReference() {
+        CommentDtoRequest comment = CommentDtoRequest.builder()
+                .text("снова отличный ноутбук")
+                .build();
+        mockMvc.perform(post("/items/{itemId}/comment", item.getId())
+                        .header(HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(comment)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authorName").value(booker.getName()));
+        assertStatementsAtMost(8);
+    }
+
+    @SneakyThrows
+    @Test
+    void createRequestInsertsOnce() {
+        ItemRequestDto requestDto = ItemRequestDto.builder()
+                .description("нужна дрель")
+                .build();
+        mockMvc.perform(post("/requests")
+                        .header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("нужна дрель"));
+        assertStatementsAtMost(2);
+    }
+
+    @SneakyThrows
+    @Test
+    void createItemsBatchInsertsInOneStatement() {
+        List<ItemDto> itemDtos = List.of(
+                ItemDto.builder().name("мышь").description("игровая мышь").available(true).build(),
+                ItemDto.builder().name("клавиатура").description("механическая клавиатура").available(true).build(),
+                ItemDto.builder().name("монитор").description("широкий монитор").available(true).build());
+        mockMvc.perform(post("/items/batch")
+                        .header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(itemDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertStatementsAtMost(6);
+        assertEquals(4, itemRepository.count());
+    }
+
+    @SneakyThrows
+    @Test
+    void createBookingsBatchInsertsInOneStatement() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDtoRequest> bookingDtos = List.of(
+                BookingDtoRequest.builder().itemId(item.getId()).start(start).end(start.plusDays(1)).build(),
+                BookingDtoRequest.builder().itemId(item.getId()).start(start.plusDays(2)).end(start.plusDays(3)).build(),
+                BookingDtoRequest.builder().itemId(item.getId()).start(start.plusDays(4)).end(start.plusDays(5)).build());
+        mockMvc.perform(post("/bookings/batch")
+                        .header(HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertStatementsAtMost(7);
+        assertEquals(4, bookingRepository.count());
+    }
+
+    private void assertStatementsAtMost(long budget) {
+        assertTrue(statistics.getPrepareStatementCount() <= budget,
+                "превышен бюджет SQL-запросов: " + statistics.getPrepareStatementCount() + " > " + budget);
+        assertEquals(0, statistics.getEntityFetchCount(), "выполнена ленивая догрузка связей.");
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(), "изменилось число SQL-запросов.");
+        assertEquals(0, statistics.getEntityFetchCount(), "выполнена ленивая догрузка связей.");
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingQuery;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sync.ChangeRepository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SchemaIndexTest$StatementRecorder")
+class SchemaIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ChangeRepository changeRepository;
+
+    @Test
+    void bookingsByBookerUseIndex() {
+        assertUsesIndex(() -> bookingRepository.findBookings(bookingQuery(BookingRole.BOOKER, BookingState.ALL)));
+        assertUsesIndex(() -> bookingRepository.findBookings(bookingQuery(BookingRole.BOOKER, BookingState.WAITING)));
+    }
+
+    @Test
+    void bookingsByItemOwnerUseIndex() {
+        assertUsesIndex(() -> bookingRepository.findBookings(bookingQuery(BookingRole.OWNER, BookingState.ALL)));
+    }
+
+    @Test
+    void bookingsByItemUseIndex() {
+        assertUsesIndex(() -> bookingRepository.findLastAndNextByItemIdIn(Set.of(1L, 2L), NOW,
+                Status.REJECTED.name()));
+        assertUsesIndex(() -> bookingRepository.findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED));
+        assertUsesIndex(() -> bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(1L, 1L, NOW));
+        assertUsesIndex(() -> bookingRepository.findById(1L));
+        assertUsesIndex(() -> bookingRepository.findEndedPairsBetween(NOW, NOW.plusDays(1)));
+    }
+
+    @Test
+    void summariesUseIndex() {
+        assertUsesIndex(() -> bookingRepository.aggregateByOwnerId(1L, NOW, Status.WAITING, Status.REJECTED));
+        assertUsesIndex(() -> bookingRepository.aggregateByBookerId(1L, NOW, Status.WAITING, Status.REJECTED));
+        assertUsesIndex(() -> bookingRepository.findUpcomingByOwnerId(1L, NOW, Status.REJECTED,
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void itemsUseIndex() {
+        assertUsesIndex(() -> itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10)));
+        assertUsesIndex(() -> itemRepository.findAllByRequestIdIn(Set.of(1L, 2L)));
+    }
+
+    @Test
+    void commentsUseIndex() {
+        assertUsesIndex(() -> commentRepository.findPageByItemId(1L, PageRequest.of(0, 10)));
+        assertUsesIndex(() -> commentRepository.findPageByItemIdBefore(1L, NOW, 1L, PageRequest.of(0, 10)));
+        assertUsesIndex(() -> commentRepository.findNewestByItemIdIn(Set.of(1L, 2L), 10));
+    }
+
+    @Test
+    void requestsUseIndex() {
+        assertUsesIndex(() -> itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(1L));
+    }
+
+    @Test
+    void changesUseIndex() {
+        assertUsesIndex(() -> changeRepository.findAllByUserIdAndPositionGreaterThanOrderByPosition(1L, 10L,
+                PageRequest.of(0, 100)));
+    }
+
+    private BookingQuery bookingQuery(BookingRole role, BookingState state) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(1L)
+                .state(state)
+                .now(NOW)
+                .limit(10)
+                .build();
+    }
+
+    private void assertUsesIndex(Runnable repositoryCall) {
+        StatementRecorder.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(StatementRecorder.STATEMENTS);
+        assertFalse(statements.isEmpty(), "метод репозитория не выполнил SQL-запросов");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"), "запрос выполняется без индекса: " + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+    }
+
+    public static class StatementRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
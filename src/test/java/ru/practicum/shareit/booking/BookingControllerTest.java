@@ -9,22 +9,36 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -39,6 +53,12 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private UserCache userCache;
+
+    @MockBean
+    private BookingEventBus eventBus;
+
     private static final String HEADER = "X-Sharer-User-Id";
     private Booking booking;
     private BookingDtoRequest bookingDtoRequest;
@@ -60,13 +80,14 @@ class BookingControllerTest {
         booking = BookingMapper.toBooking(bookingDtoRequest, bookingUser, item, Status.WAITING);
         booking.setId(0L);
         bookingDtoResp = BookingMapper.toResponse(booking);
-
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userCache.get(anyLong())).thenReturn(Optional.of(bookingUser));
     }
 
     @SneakyThrows
     @Test
     void addBookingInputValid() {
-        when(bookingService.createBooking(any(BookingDtoRequest.class), anyLong())).thenReturn(booking);
+        when(bookingService.createBooking(any(BookingDtoRequest.class), any(User.class))).thenReturn(booking);
         mockMvc.perform(post("/bookings")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(bookingDtoRequest))
@@ -83,7 +104,7 @@ class BookingControllerTest {
     @Test
     void addBookingInputNotValidException() {
         bookingDtoRequest.setEnd(LocalDateTime.now().minusDays(1));
-        when(bookingService.createBooking(any(BookingDtoRequest.class), anyLong()))
+        when(bookingService.createBooking(any(BookingDtoRequest.class), any(User.class)))
                 .thenReturn(booking);
         mockMvc.perform(post("/bookings")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -91,7 +112,32 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON)
                         .header(HEADER, "1"))
                 .andExpect(status().isBadRequest());
-        verify(bookingService, never()).createBooking(any(BookingDtoRequest.class), anyLong());
+        verify(bookingService, never()).createBooking(any(BookingDtoRequest.class), any(User.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void addBookingsBatchValid() {
+        when(bookingService.createBookings(anyList(), any(User.class))).thenReturn(List.of(booking));
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookingDtoRequest)))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(0))
+                .andExpect(jsonPath("$[0].item.id").value(item.getId()));
+    }
+
+    @SneakyThrows
+    @Test
+    void addBookingsBatchEmptyException() {
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+                        .header(HEADER, "1"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).createBookings(anyList(), any(User.class));
     }
 
     @SneakyThrows
@@ -123,7 +169,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllBookersInputValueValid() {
-        List<Booking> list = List.of(booking);
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
         when(bookingService.getAllBookingsByUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(list);
 
         mockMvc.perform(get("/bookings")
@@ -143,7 +189,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllBookersInputValueNotValidException() {
-        List<Booking> list = List.of(booking);
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
         when(bookingService.getAllBookingsByUser(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(list);
 
         mockMvc.perform(get("/bookings")
@@ -159,7 +205,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllBookingsItemsByOwnerInputValueValid() {
-        List<Booking> list = List.of(booking);
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
         when(bookingService.getAllBookingsItemsByOwner(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(list);
 
         mockMvc.perform(get("/bookings/owner", bookingUser.getId())
@@ -178,7 +224,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllBookingsItemsByOwnerInputValueNotValidException() {
-        List<Booking> list = List.of(booking);
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
         when(bookingService.getAllBookingsItemsByOwner(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(list);
 
         mockMvc.perform(get("/bookings/owner", bookingUser.getId())
@@ -190,6 +236,102 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    void getAllBookingsByUserShortPageCountsWithoutQuery() {
+        when(bookingService.getAllBookingsByUser(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingDtoResp));
+
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, "1")
+                        .param("state", "ALL")
+                        .param("from", "1")
+                        .param("size", "15"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.TOTAL_COUNT_HEADER, "1"))
+                .andExpect(header().doesNotExist(BookingController.STATE_COUNTS_HEADER));
+        verify(bookingService, never()).countBookings(any(BookingRole.class), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookingsByUserFullPageReturnsTotalCount() {
+        when(bookingService.getAllBookingsByUser(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingDtoResp));
+        when(bookingService.countBookings(BookingRole.BOOKER, 1L))
+                .thenReturn(Map.of(BookingState.ALL, 7L, BookingState.WAITING, 3L));
+
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, "1")
+                        .param("state", "WAITING")
+                        .param("from", "1")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.TOTAL_COUNT_HEADER, "3"))
+                .andExpect(header().doesNotExist(BookingController.STATE_COUNTS_HEADER));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookingsItemsByOwnerReturnsStateCounts() {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, 2L);
+        counts.put(BookingState.FUTURE, 1L);
+        when(bookingService.getAllBookingsItemsByOwner(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingDtoResp));
+        when(bookingService.countBookings(BookingRole.OWNER, 1L)).thenReturn(counts);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(HEADER, "1")
+                        .param("counts", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.TOTAL_COUNT_HEADER, "2"))
+                .andExpect(header().string(BookingController.STATE_COUNTS_HEADER, "ALL=2,FUTURE=1"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookersAfterCursorReturnsNextCursor() {
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
+        BookingCursor cursor = new BookingCursor(booking.getStart().plusDays(1), 5L);
+        when(bookingService.getBookingsByUserAfter(anyLong(), anyString(), any(BookingCursor.class), anyInt()))
+                .thenReturn(list);
+
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, "1")
+                        .param("state", "ALL")
+                        .param("after", cursor.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(list.get(0).getId()))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, BookingCursor.of(bookingDtoResp).encode()));
+        verify(bookingService, never()).getAllBookingsByUser(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookingsItemsByOwnerFirstCursorPage() {
+        List<BookingDtoResponse> list = List.of(bookingDtoResp);
+        when(bookingService.getBookingsByOwnerAfter(anyLong(), anyString(), isNull(), anyInt())).thenReturn(list);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(HEADER, "1")
+                        .param("after", "")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value(list.get(0).getItem().getName()))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookersAfterCursorNotValidException() {
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, "1")
+                        .param("after", "не-курсор"))
+                .andExpect(status().isBadRequest());
+    }
+
     private ItemRequest itemRequestBuilder() {
         ItemRequest itRequest = ItemRequest.builder()
                 .id(1L)
@@ -238,4 +380,99 @@ class BookingControllerTest {
                 .build();
         return data;
     }
+
+    @SneakyThrows
+    @Test
+    void subscribeStartsEventStream() {
+        SseEmitter emitter = new SseEmitter();
+        when(eventBus.subscribe(bookingUser.getId())).thenReturn(emitter);
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/events")
+                        .header(HEADER, "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().comment("ping"));
+        assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(
+                MediaType.parseMediaType(mvcResult.getResponse().getContentType())));
+        verify(eventBus, times(1)).subscribe(bookingUser.getId());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsByUserNdjson() {
+        doAnswer(invocation -> {
+            Consumer<BookingDtoResponse> consumer = invocation.getArgument(3);
+            consumer.accept(bookingDtoResp);
+            consumer.accept(bookingDtoResp);
+            return null;
+        }).when(bookingService).exportBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.ALL), any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/export")
+                        .header(HEADER, "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = objectMapper.writeValueAsString(bookingDtoResp);
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(line + "\n" + line + "\n", body);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsItemsByOwnerCsv() {
+        bookingDtoResp.getItem().setName("ноутбук, \"новый\"");
+        doAnswer(invocation -> {
+            Consumer<BookingDtoResponse> consumer = invocation.getArgument(3);
+            consumer.accept(bookingDtoResp);
+            return null;
+        }).when(bookingService).exportBookings(eq(BookingRole.OWNER), anyLong(), eq(BookingState.PAST), any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/owner/export")
+                        .header(HEADER, "1")
+                        .param("state", "PAST")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string(BookingExportWriter.CSV_HEADER + "\n"
+                        + bookingDtoResp.getId() + "," + bookingDtoResp.getStart() + "," + bookingDtoResp.getEnd()
+                        + ",WAITING," + bookingDtoResp.getBooker().getId() + "," + bookingDtoResp.getItem().getId()
+                        + ",\"ноутбук, \"\"новый\"\"\"\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsUnknownStateException() {
+        mockMvc.perform(get("/bookings/export")
+                        .header(HEADER, "1")
+                        .param("state", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).exportBookings(any(), anyLong(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnerSummary() {
+        OwnerSummaryDto summary = OwnerSummaryDto.builder()
+                .states(Map.of(BookingState.ALL, 3L, BookingState.WAITING, 1L))
+                .items(2)
+                .pendingApprovals(1)
+                .build();
+        when(bookingService.getOwnerSummary(1L)).thenReturn(summary);
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.states.ALL").value(3))
+                .andExpect(jsonPath("$.items").value(2))
+                .andExpect(jsonPath("$.pendingApprovals").value(1));
+        verify(bookingService, never()).getAllBookingsItemsByOwner(anyLong(), anyString(), anyInt(), anyInt());
+    }
 }
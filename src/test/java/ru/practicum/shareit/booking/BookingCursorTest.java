@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.WrongCursorException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, 1, 10, 12, 30, 15, 123000), 42L);
+        BookingCursor decoded = BookingCursor.decode(cursor.encode());
+        assertEquals(cursor.getStart(), decoded.getStart(), "курсор разобран некорректно");
+        assertEquals(cursor.getId(), decoded.getId(), "курсор разобран некорректно");
+    }
+
+    @Test
+    void decodeEmptyCursor() {
+        assertNull(BookingCursor.decode(""), "курсор разобран некорректно");
+        assertNull(BookingCursor.decode(null), "курсор разобран некорректно");
+    }
+
+    @Test
+    void decodeNotValidCursor() {
+        assertThrows(WrongCursorException.class, () -> BookingCursor.decode("не-курсор"));
+        assertThrows(WrongCursorException.class, () -> BookingCursor.decode("MjAyNA"));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingEventBusTest {
+    private List<Runnable> tasks;
+    private BookingEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        tasks = new ArrayList<>();
+        eventBus = new BookingEventBus(2, 1000, tasks::add);
+    }
+
+    @Test
+    void publishDeliversToBookerAndOwnerOnly() {
+        RecordingEmitter booker = new RecordingEmitter();
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        eventBus.subscribe(1L, booker);
+        eventBus.subscribe(2L, owner);
+        eventBus.subscribe(3L, other);
+
+        eventBus.publish(event(BookingEventType.CREATED, 10L));
+        runTasks();
+        assertEquals(List.of(10L), booker.bookingIds);
+        assertEquals(List.of(10L), owner.bookingIds);
+        assertTrue(other.bookingIds.isEmpty());
+    }
+
+    @Test
+    void slowSubscriberDropsOldest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        eventBus.bindTo(registry);
+        RecordingEmitter booker = new RecordingEmitter();
+        eventBus.subscribe(1L, booker);
+
+        eventBus.publish(event(BookingEventType.CREATED, 10L));
+        eventBus.publish(event(BookingEventType.APPROVED, 11L));
+        eventBus.publish(event(BookingEventType.REJECTED, 12L));
+        assertEquals(1, tasks.size(), "подписчик должен обслуживаться одной задачей");
+        runTasks();
+        assertEquals(List.of(11L, 12L), booker.bookingIds);
+        assertEquals(1.0, registry.get("booking.events.dropped").functionCounter().count());
+        assertEquals(3.0, registry.get("booking.events.published").functionCounter().count());
+    }
+
+    @Test
+    void failedSendUnsubscribes() {
+        RecordingEmitter booker = new RecordingEmitter();
+        booker.broken = true;
+        eventBus.subscribe(1L, booker);
+        assertEquals(1, eventBus.subscribers());
+
+        eventBus.publish(event(BookingEventType.CREATED, 10L));
+        runTasks();
+        assertEquals(0, eventBus.subscribers());
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private BookingEvent event(BookingEventType type, Long bookingId) {
+        BookingDtoResponse booking = new BookingDtoResponse(bookingId, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), Status.WAITING, 1L, 5L, "дрель");
+        return new BookingEvent(type, 1L, 2L, booking);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Long> bookingIds = new ArrayList<>();
+        private boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("соединение закрыто");
+            }
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(BookingDtoResponse.class::isInstance)
+                    .map(data -> ((BookingDtoResponse) data).getId())
+                    .forEach(bookingIds::add);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex intervalIndex;
+    private Item item;
+    private User booker;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        intervalIndex = new BookingIntervalIndex(bookingRepository);
+        item = Item.builder()
+                .id(1L)
+                .name("ноутбук")
+                .build();
+        booker = User.builder()
+                .id(2L)
+                .build();
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void loadRejectsOverlapWithStoredBookings() {
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking(1L, start, start.plusDays(2))));
+        intervalIndex.load();
+
+        assertFalse(intervalIndex.isFree(item.getId(), start.plusDays(1), start.plusDays(3)), "некорректная работа.");
+        assertTrue(intervalIndex.isFree(item.getId(), start.plusDays(2), start.plusDays(3)), "некорректная работа.");
+        assertTrue(intervalIndex.isFree(2L, start, start.plusDays(1)), "некорректная работа.");
+    }
+
+    @Test
+    void reserveSavesOnlyFreeIntervals() {
+        Booking saved = intervalIndex.reserve(booking(null, start, start.plusHours(2)),
+                () -> booking(1L, start, start.plusHours(2)));
+        assertEquals(1L, saved.getId(), "некорректная работа.");
+
+        assertThrows(BookingOverlapException.class, () -> intervalIndex.reserve(booking(null, start.plusHours(1),
+                start.plusHours(3)), () -> fail("сохранение не должно вызываться")));
+    }
+
+    @Test
+    void releaseAndRestoreFollowStatusChanges() {
+        Booking booking = intervalIndex.reserve(booking(null, start, start.plusHours(2)),
+                () -> booking(1L, start, start.plusHours(2)));
+        intervalIndex.release(booking);
+        assertTrue(intervalIndex.isFree(item.getId(), start, start.plusHours(2)), "некорректная работа.");
+
+        intervalIndex.reserve(booking(null, start.plusHours(1), start.plusHours(3)),
+                () -> booking(2L, start.plusHours(1), start.plusHours(3)));
+        assertThrows(BookingOverlapException.class, () -> intervalIndex.restore(booking));
+    }
+
+    @Test
+    void reserveBecomesVisibleOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            intervalIndex.reserve(booking(null, start, start.plusHours(2)), () -> booking(1L, start, start.plusHours(2)));
+            assertTrue(intervalIndex.isFree(item.getId(), start, start.plusHours(2)), "некорректная работа.");
+            assertThrows(BookingOverlapException.class, () -> intervalIndex.reserve(booking(null, start.plusHours(1),
+                    start.plusHours(3)), () -> fail("сохранение не должно вызываться")));
+
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            assertFalse(intervalIndex.isFree(item.getId(), start, start.plusHours(2)), "некорректная работа.");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rollbackDiscardsReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            intervalIndex.reserve(booking(null, start, start.plusHours(2)), () -> booking(1L, start, start.plusHours(2)));
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Booking saved = intervalIndex.reserve(booking(null, start, start.plusHours(2)),
+                () -> booking(2L, start, start.plusHours(2)));
+        assertEquals(2L, saved.getId(), "некорректная работа.");
+        assertFalse(intervalIndex.isFree(item.getId(), start, start.plusHours(2)), "некорректная работа.");
+    }
+
+    @Test
+    void evictEndedDropsFinishedIntervals() {
+        Item other = Item.builder()
+                .id(2L)
+                .build();
+        LocalDateTime past = LocalDateTime.now().minusDays(2);
+        Booking finished = booking(1L, past, past.plusDays(1));
+        finished.setItem(other);
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any(LocalDateTime.class)))
+                .thenReturn(List.of(finished, booking(2L, past, past.plusHours(1)), booking(3L, start, start.plusDays(1))));
+        intervalIndex.load();
+        assertEquals(2, intervalIndex.size(), "некорректная работа.");
+
+        intervalIndex.evictEnded();
+        assertEquals(1, intervalIndex.size(), "некорректная работа.");
+        assertTrue(intervalIndex.isFree(item.getId(), past, past.plusHours(1)), "некорректная работа.");
+        assertFalse(intervalIndex.isFree(item.getId(), start, start.plusDays(1)), "некорректная работа.");
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private Booking booking(Long id, LocalDateTime from, LocalDateTime to) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .start(from)
+                .end(to)
+                .status(Status.WAITING)
+                .build();
+    }
+}
@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookerItemView;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
@@ -15,6 +19,8 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,98 +101,181 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByBookerOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByBookerOrderByStartDesc(booker, PageRequest.of(0, 5));
-        assertFalse(bookings.isEmpty());
-        assertEquals(booker, bookings.get(0).getBooker());
-        assertEquals(2, bookings.size());
+    void findAllDtoByItemIdAndStatusNotSkipsRejected() {
+        booking.setStatus(Status.REJECTED);
+        bookingRepository.save(booking);
+
+        List<BookingDtoResponse> bookings = bookingRepository.findAllDtoByItemIdAndStatusNot(item.getId(),
+                Status.REJECTED);
+        assertEquals(1, bookings.size());
+        assertEquals(booking1.getId(), bookings.get(0).getId());
+        assertEquals(booker.getId(), bookings.get(0).getBooker().getId());
     }
 
     @Test
-    void findFirstByBookerIdAndItemIdAndEndIsBeforeOrderByEndDesc() {
-        Booking booking2 = bookingRepository.findFirstByBookerIdAndItemIdAndEndIsBeforeOrderByEndDesc(booker.getId(),
-                item.getId(), LocalDateTime.now().plusDays(1));
-        assertEquals(booking.getStart().getSecond(), booking2.getStart().getSecond());
+    void findEndedPairsReturnsDistinctBookerItemPairs() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookerItemView> ended = bookingRepository.findEndedPairs(now.plusDays(5));
+        assertEquals(1, ended.size());
+        assertEquals(booker.getId(), ended.get(0).getBookerId());
+        assertEquals(item.getId(), ended.get(0).getItemId());
+        assertTrue(bookingRepository.findEndedPairs(now).isEmpty());
+        assertEquals(1, bookingRepository.findEndedPairsBetween(now.plusDays(2), now.plusDays(5)).size());
+        assertTrue(bookingRepository.findEndedPairsBetween(now.plusDays(3).plusHours(1), now.plusDays(5)).isEmpty());
     }
 
     @Test
-    void findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(user,
-                LocalDateTime.now(), LocalDateTime.now().plusDays(2), PageRequest.of(0, 5));
-        assertEquals(1, bookings.size());
-        assertEquals(booking1.getStart().getSecond(), bookings.get(0).getStart().getSecond());
+    void aggregateByOwnerIdCountsStatesInOneRow() {
+        booking1.setStatus(Status.REJECTED);
+        bookingRepository.save(booking1);
+        LocalDateTime now = LocalDateTime.now();
+
+        BookingStatsView stats = bookingRepository.aggregateByOwnerId(user.getId(), now, Status.WAITING,
+                Status.REJECTED);
+        assertEquals(2L, stats.getTotalCount());
+        assertEquals(2L, stats.getCurrentCount());
+        assertEquals(0L, stats.getPastCount());
+        assertEquals(0L, stats.getFutureCount());
+        assertEquals(1L, stats.getWaitingCount());
+        assertEquals(1L, stats.getRejectedCount());
+        assertEquals(1L, stats.getPendingCount());
+        assertNull(stats.getNextStart());
+        assertEquals(booking.getEnd().getSecond(), stats.getNextEnd().getSecond());
+        assertEquals(1L, itemRepository.countByOwnerId(user.getId()));
     }
 
     @Test
-    void findAllByBookerAndEndIsBeforeOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByBookerAndEndIsBeforeOrderByStartDesc(booker,
-                LocalDateTime.now().plusDays(5), PageRequest.of(0, 5));
-        assertEquals(2, bookings.size());
+    void aggregateByBookerIdCountsOnlyBookerRows() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatsView stats = bookingRepository.aggregateByBookerId(booker.getId(), now, Status.WAITING,
+                Status.REJECTED);
+        assertEquals(2L, stats.getTotalCount());
+        assertEquals(2L, stats.getWaitingCount());
+        assertEquals(0L, stats.getRejectedCount());
+        assertEquals(0L, bookingRepository.aggregateByBookerId(booker1.getId(), now, Status.WAITING,
+                Status.REJECTED).getTotalCount());
     }
 
     @Test
-    void findAllByBookerAndStatusEqualsOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStatusEqualsOrderByStartDesc(booker,
-                Status.WAITING, PageRequest.of(0, 1));
-        assertEquals(1, bookings.size());
-        assertEquals(booking1.getStart().getSecond(), bookings.get(0).getStart().getSecond());
+    void findUpcomingByOwnerIdSkipsRejected() {
+        booking1.setStatus(Status.REJECTED);
+        bookingRepository.save(booking1);
+
+        List<BookingDtoResponse> upcoming = bookingRepository.findUpcomingByOwnerId(user.getId(),
+                LocalDateTime.now().minusHours(1), Status.REJECTED, PageRequest.of(0, 1));
+        assertEquals(1, upcoming.size());
+        assertEquals(booking.getId(), upcoming.get(0).getId());
+        assertTrue(bookingRepository.findUpcomingByOwnerId(user.getId(), LocalDateTime.now().plusHours(1),
+                Status.REJECTED, PageRequest.of(0, 1)).isEmpty());
     }
 
     @Test
-    void findAllByItemOwnerOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerOrderByStartDesc(user, PageRequest.of(0, 5));
-        assertEquals(2, bookings.size());
+    void existsByBookerIdAndItemIdAndEndIsBefore() {
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(booker.getId(), item.getId(),
+                LocalDateTime.now().plusDays(2)));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(booker1.getId(), item.getId(),
+                LocalDateTime.now().plusDays(2)));
     }
 
     @Test
-    void findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart() {
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(booker,
-                LocalDateTime.now(), LocalDateTime.now().plusDays(2), PageRequest.of(0, 5));
-        assertEquals(1, bookings.size());
-        assertFalse(bookings.contains(booking));
+    void findLastAndNextByItemIdIn() {
+        List<ItemBookingView> views = bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()),
+                LocalDateTime.now().plusHours(1), Status.REJECTED.name());
+        assertEquals(1, views.size());
+        assertEquals(booking1.getId(), views.get(0).getId());
+        assertEquals(booker.getId(), views.get(0).getBookerId());
+        assertTrue(views.get(0).getPast());
     }
 
     @Test
-    void findAllByItemOwnerAndStartIsAfterOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStartIsAfterOrderByStartDesc(user,
-                LocalDateTime.now().minusHours(1), PageRequest.of(0, 1));
-        assertEquals(1, bookings.size());
-        assertEquals(booking1.getStart().getSecond(), bookings.get(0).getStart().getSecond());
+    void findLastAndNextByItemIdInSkipsRejectedMostRecent() {
+        booking1.setStatus(Status.REJECTED);
+        bookingRepository.save(booking1);
+
+        List<ItemBookingView> views = bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()),
+                LocalDateTime.now().plusHours(1), Status.REJECTED.name());
+        assertEquals(1, views.size());
+        assertEquals(booking.getId(), views.get(0).getId());
+        assertTrue(views.get(0).getPast());
     }
 
     @Test
-    void findAllByItemOwnerAndEndIsBeforeOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(user,
-                LocalDateTime.now().plusDays(4), PageRequest.of(0, 2));
+    void findBookingsByBookerOrderByStartDesc() {
+        List<BookingDtoResponse> bookings = bookingRepository.findBookings(query(BookingRole.BOOKER, booker,
+                BookingState.ALL).limit(5).build());
         assertEquals(2, bookings.size());
+        assertEquals(booking1.getId(), bookings.get(0).getId());
+        assertEquals(item.getName(), bookings.get(0).getItem().getName());
+        assertEquals(booker.getId(), bookings.get(0).getBooker().getId());
     }
 
     @Test
-    void findAllByItemOwnerAndStatusEqualsOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(user,
-                Status.WAITING, PageRequest.of(0, 1));
-        assertEquals(1, bookings.size());
-        assertEquals(booking1.getStart().getSecond(), bookings.get(0).getStart().getSecond());
+    void findBookingsByBookerAndState() {
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.BOOKER, booker, BookingState.CURRENT)
+                .limit(5).build()).size());
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.BOOKER, booker, BookingState.WAITING)
+                .limit(5).build()).size());
+        assertTrue(bookingRepository.findBookings(query(BookingRole.BOOKER, booker, BookingState.PAST)
+                .limit(5).build()).isEmpty());
+        assertTrue(bookingRepository.findBookings(query(BookingRole.BOOKER, booker, BookingState.FUTURE)
+                .limit(5).build()).isEmpty());
+        assertTrue(bookingRepository.findBookings(query(BookingRole.BOOKER, booker1, BookingState.ALL)
+                .limit(5).build()).isEmpty());
     }
 
     @Test
-    void findFirstByItemIdAndStartIsBeforeOrStartEqualsOrderByStartDesc() {
-        Booking booking2 = bookingRepository.findFirstByItemIdAndStartIsBeforeOrStartEqualsOrderByStartDesc(item.getId(),
-                LocalDateTime.now(), LocalDateTime.now().plusDays(1));
-        assertEquals(booking1.getStart().getSecond(), booking2.getStart().getSecond());
+    void findBookingsByOwnerAndState() {
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.OWNER, user, BookingState.ALL)
+                .limit(5).build()).size());
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.OWNER, user, BookingState.WAITING)
+                .limit(5).build()).size());
+        assertTrue(bookingRepository.findBookings(query(BookingRole.OWNER, user, BookingState.REJECTED)
+                .limit(5).build()).isEmpty());
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.OWNER, user, BookingState.PAST)
+                .now(LocalDateTime.now().plusDays(5)).limit(5).build()).size());
+        assertEquals(2, bookingRepository.findBookings(query(BookingRole.OWNER, user, BookingState.FUTURE)
+                .now(LocalDateTime.now().minusDays(1)).limit(5).build()).size());
+        assertTrue(bookingRepository.findBookings(query(BookingRole.OWNER, booker, BookingState.ALL)
+                .limit(5).build()).isEmpty());
     }
 
     @Test
-    void findAllByBookerAndStartIsAfterOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStartIsAfterOrderByStartDesc(booker,
-                LocalDateTime.now().minusHours(5), PageRequest.of(0, 5));
-        assertEquals(2, bookings.size());
+    void findBookingsWithOffset() {
+        List<BookingDtoResponse> bookings = bookingRepository.findBookings(query(BookingRole.BOOKER, booker,
+                BookingState.ALL).offset(1).limit(5).build());
+        assertEquals(1, bookings.size());
+        assertEquals(booking.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void findBookingsSeeksPastCursor() {
+        List<BookingDtoResponse> firstPage = bookingRepository.findBookings(query(BookingRole.BOOKER, booker,
+                BookingState.ALL).limit(1).build());
+        assertEquals(1, firstPage.size());
+        List<BookingDtoResponse> secondPage = bookingRepository.findBookings(query(BookingRole.BOOKER, booker,
+                BookingState.ALL).after(BookingCursor.of(firstPage.get(0))).limit(1).build());
+        assertEquals(1, secondPage.size());
+        assertNotEquals(firstPage.get(0).getId(), secondPage.get(0).getId());
+        List<BookingDtoResponse> lastPage = bookingRepository.findBookings(query(BookingRole.BOOKER, booker,
+                BookingState.ALL).after(BookingCursor.of(secondPage.get(0))).limit(1).build());
+        assertTrue(lastPage.isEmpty());
     }
 
     @Test
-    void findFirstByItemIdAndStartIsAfterOrderByStart() {
-        Booking booking2 = bookingRepository.findFirstByItemIdAndStartIsAfterOrderByStart(item.getId(),
-                LocalDateTime.now().minusHours(4));
-        assertEquals(booking.getStart().getSecond(), booking2.getStart().getSecond());
+    void streamBookingsReturnsAllRowsInOrder() {
+        List<Long> ids;
+        try (Stream<BookingDtoResponse> bookings = bookingRepository.streamBookings(query(BookingRole.OWNER, user,
+                BookingState.ALL).build(), 1)) {
+            ids = bookings.map(BookingDtoResponse::getId).collect(Collectors.toList());
+        }
+        assertEquals(List.of(booking1.getId(), booking.getId()), ids);
+    }
+
+    private BookingQuery.BookingQueryBuilder query(BookingRole role, User user, BookingState state) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(user.getId())
+                .state(state)
+                .now(LocalDateTime.now());
     }
 }
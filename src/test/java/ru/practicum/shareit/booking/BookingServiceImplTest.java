@@ -2,24 +2,33 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
 import ru.practicum.shareit.exceptions.*;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.sync.ChangeLog;
+import ru.practicum.shareit.sync.ChangeType;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -34,9 +43,13 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ChangeLog changeLog;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OwnerSummaryCache ownerSummary;
 
     private User user;
     private Item item;
@@ -45,9 +58,14 @@ class BookingServiceImplTest {
     private User owner;
     private BookingDtoRequest request;
     private Booking booking;
+    private BookingDtoResponse bookingResponse;
+    private BookingIntervalIndex intervalIndex;
 
     @BeforeEach
     void setUp() {
+        intervalIndex = new BookingIntervalIndex(bookingRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, itemRepository,
+                intervalIndex, changeLog, eventPublisher, ownerSummary);
         user = User.builder()
                 .id(1L)
                 .email("new@mail.ru")
@@ -80,68 +98,133 @@ class BookingServiceImplTest {
                 .build();
         booking = BookingMapper.toBooking(request, user, item, Status.WAITING);
         booking.setId(1L);
+        bookingResponse = BookingMapper.toResponse(booking);
     }
 
     @Test
     void addBookingInputValueValid() {
         booking.setId(null);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(itemRepository.findById(request.getItemId())).thenReturn(Optional.of(item));
-        when(bookingRepository.save(booking)).thenReturn(booking);
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        Booking saveBooking = bookingService.createBooking(request, user.getId());
+        when(bookingRepository.save(booking)).thenAnswer(invocationOnMock -> {
+            booking.setId(1L);
+            return booking;
+        });
+        Booking saveBooking = bookingService.createBooking(request, user);
 
         assertEquals(saveBooking.getItem(), item, "Метод работает некорректно");
         assertEquals(saveBooking.getBooker(), user, "Метод работает некорректно");
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(ownerSummary, times(1)).bookingCreated(owner.getId(), saveBooking);
+    }
+
+    @Test
+    void createBookingOverlappingBookingException() {
+        when(itemRepository.findById(request.getItemId())).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        bookingService.createBooking(request, user);
+
+        BookingDtoRequest overlapping = BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(request.getStart().plusHours(1))
+                .end(request.getEnd().plusHours(1))
+                .build();
+        assertThrows(BookingOverlapException.class, () -> bookingService.createBooking(overlapping, user));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookingOwnerSelfBookingException() {
+        when(itemRepository.findById(request.getItemId())).thenReturn(Optional.of(item));
+        assertThrows(SelfBookingException.class, () -> bookingService.createBooking(request, owner));
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
-    void createBookingBookerNotValidException() {
-        when(userRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> bookingService.createBooking(request, user.getId()));
+    void createBookingsBatchLoadsItemsOnce() {
+        BookingDtoRequest next = BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(request.getEnd().plusDays(1))
+                .end(request.getEnd().plusDays(2))
+                .build();
+        when(itemRepository.findAllById(Set.of(item.getId()))).thenReturn(List.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocationOnMock -> {
+            Booking saved = invocationOnMock.getArgument(0);
+            saved.setId(saved.getStart().equals(request.getStart()) ? 1L : 2L);
+            return saved;
+        });
+
+        List<Booking> bookings = bookingService.createBookings(List.of(request, next), user);
+        assertEquals(2, bookings.size(), "Метод работает некорректно");
+        assertEquals(Status.WAITING, bookings.get(1).getStatus(), "Метод работает некорректно");
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void createBookingsBatchOverlapReleasesReserved() {
+        BookingDtoRequest overlapping = BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(request.getStart().plusHours(1))
+                .end(request.getEnd().plusHours(1))
+                .build();
+        when(itemRepository.findAllById(Set.of(item.getId()))).thenReturn(List.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(BookingOverlapException.class,
+                    () -> bookingService.createBookings(List.of(request, overlapping), user));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertDoesNotThrow(() -> intervalIndex.reserve(booking, () -> booking),
+                "после отката пакета интервалы не освобождены");
+    }
+
+    @Test
+    void createBookingsBatchItemNotValidException() {
+        when(itemRepository.findAllById(Set.of(item.getId()))).thenReturn(List.of());
+        assertThrows(DataNotFoundException.class, () -> bookingService.createBookings(List.of(request), user));
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void createBookingItemNotValidException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> bookingService.createBooking(request, user.getId()));
+        assertThrows(DataNotFoundException.class, () -> bookingService.createBooking(request, user));
     }
 
     @Test
     void changeStatusAllInputValueValid() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         Booking actualStatusBooking = bookingService.changeStatus(booking.getId(), owner.getId(), true);
         assertEquals(Status.APPROVED, actualStatusBooking.getStatus(), "Метод отработал некорректно");
         assertEquals(item, actualStatusBooking.getItem(), "Метод отработал некорректно");
-    }
-
-    @Test
-    void changeStatusUserNotValidException() {
-        when(userRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> bookingService.changeStatus(booking.getId(), user.getId(), true));
+        verify(changeLog, times(1)).record(ChangeType.BOOKING, booking.getId(), user.getId(), owner.getId());
+        ArgumentCaptor<BookingEvent> event = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(BookingEventType.APPROVED, event.getValue().getType());
+        assertEquals(owner.getId(), event.getValue().getOwnerId());
+        verify(ownerSummary, times(1)).statusChanged(owner.getId(), booking, Status.WAITING);
     }
 
     @Test
     void changeStatusBookingNotValidException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
         assertThrows(DataNotFoundException.class, () -> bookingService.changeStatus(booking.getId(), user.getId(), true));
     }
 
     @Test
     void changeStatusUserIdEqualsOwnerException() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         assertThrows(DataNotFoundException.class, () -> bookingService.changeStatus(booking.getId(), user.getId(), true));
     }
 
     @Test
     void changeStatusBookingStatusEqualsApprovedException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         booking.setStatus(Status.APPROVED);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         assertThrows(StatusAlreadyApprovedException.class, () -> bookingService.changeStatus(booking.getId(), owner.getId(), true));
@@ -149,7 +232,6 @@ class BookingServiceImplTest {
 
     @Test
     void changeStatusApprovedEqualsFalseReturnStatusRejected() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
@@ -160,7 +242,6 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingInputValueValid() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
 
         Booking booking1 = bookingService.getBooking(booking.getId(), user.getId());
@@ -169,272 +250,247 @@ class BookingServiceImplTest {
         assertEquals(booking1.getBooker().getId(), user.getId(), "некорректная работа.");
     }
 
-    @Test
-    void getBookingUserIdDataNotFoundException() {
-        when(userRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> bookingService.getBooking(booking.getId(), user.getId()));
-    }
-
     @Test
     void getBookingBookingIdDataNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
         assertThrows(DataNotFoundException.class, () -> bookingService.getBooking(booking.getId(), user.getId()));
     }
 
     @Test
     void getBookerIdEqualsOwnerIdException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         assertThrows(WrongOwnerException.class, () -> bookingService.getBooking(booking.getId(), 5L));
     }
 
+    @Test
+    void getAllBookingsByUserAfterCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.now(), 3L);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getBookingsByUserAfter(user.getId(), "PAST", cursor, 5);
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.PAST, query.getState(), "некорректная работа.");
+        assertEquals(cursor, query.getAfter(), "некорректная работа.");
+        assertEquals(user.getId(), query.getUserId(), "некорректная работа.");
+    }
+
+    @Test
+    void getAllBookingsItemsByOwnerAfterCursorUnknownState() {
+        assertThrows(WrongDateException.class, () -> bookingService.getBookingsByOwnerAfter(owner.getId(),
+                "UNKNOWN", null, 5));
+    }
+
     @Test
     void getAllBookingsByUserStatusEqualsAll() {
-        Integer from = 1;
-        Integer size = 10;
-        LocalDateTime dateTime = LocalDateTime.now();
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerOrderByStartDesc(user, pageable)).thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "ALL", from, size);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(user, dateTime,
-                dateTime.plusDays(1), pageable);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "ALL", 10, 10);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.ALL, query.getState(), "некорректная работа.");
+        assertEquals(10, query.getOffset(), "некорректная работа.");
+        assertEquals(10, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusEqualsCURRENT() {
-        Integer from = 1;
-        Integer size = 10;
-        LocalDateTime dateTime = LocalDateTime.now();
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "CURRENT", from, size);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "CURRENT", 1, 10);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.CURRENT, query.getState(), "некорректная работа.");
+        assertEquals(0, query.getOffset(), "некорректная работа.");
+        assertEquals(10, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusEqualsFUTURE() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "FUTURE", 1, 1);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByBookerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "FUTURE", 1, 1);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.FUTURE, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusEqualsPAST() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "PAST", 1, 1);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "PAST", 1, 1);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.PAST, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusEqualsWAITING() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class))).thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "WAITING", 1, 1);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "WAITING", 1, 1);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.WAITING, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusEqualsREJECTED() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class))).thenReturn(list);
-        List<Booking> orderBooking = bookingService.getAllBookingsByUser(user.getId(), "REJECTED", 1, 1);
-        assertFalse(orderBooking.isEmpty());
-        assertEquals(1, orderBooking.size(), "некорректная работа.");
-        verify(bookingRepository, never()).findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByBookerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "REJECTED", 1, 1);
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, bookings.size(), "некорректная работа.");
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.BOOKER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.REJECTED, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsByUserStatusNotValidException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         assertThrows(WrongDateException.class, () -> bookingService.getAllBookingsByUser(user.getId(), "RRR", 1, 1));
+        verify(bookingRepository, never()).findBookings(any(BookingQuery.class));
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsALL() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "ALL", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "ALL", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, times(1))
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.ALL, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsCURRENT() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class), any(LocalDateTime.class),
-                any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "CURRENT", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "CURRENT", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, never())
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.CURRENT, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsFUTURE() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "FUTURE", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "FUTURE", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, never())
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.FUTURE, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsPAST() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "PAST", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "PAST", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, never())
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.PAST, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsWAITING() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "WAITING", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "WAITING", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, never())
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.WAITING, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusEqualsREJECTED() {
-        List<Booking> list = List.of(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class)))
-                .thenReturn(list);
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "REJECTED", 1, 1);
+        when(bookingRepository.findBookings(any(BookingQuery.class))).thenReturn(List.of(bookingResponse));
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(user.getId(), "REJECTED", 1, 1);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size(), "некорректная работа.");
-        verify(bookingRepository, never())
-                .findAllByItemOwnerOrderByStartDesc(any(User.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsBeforeAndEndIsAfterOrderByStart(any(User.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndStartIsAfterOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerAndEndIsBeforeOrderByStartDesc(any(User.class),
-                any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(1)).findAllByItemOwnerAndStatusEqualsOrderByStartDesc(any(User.class),
-                any(Status.class), any(Pageable.class));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingRole.OWNER, query.getRole(), "некорректная работа.");
+        assertEquals(BookingState.REJECTED, query.getState(), "некорректная работа.");
+        assertEquals(1, query.getOffset(), "некорректная работа.");
+        assertEquals(1, query.getLimit(), "некорректная работа.");
     }
 
     @Test
     void getAllBookingsItemsByOwnerStatusNotValidException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         assertThrows(WrongDateException.class, () -> bookingService.getAllBookingsItemsByOwner(user.getId(),
                 "AAA", 1, 1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getOwnerSummaryServedFromCache() {
+        OwnerSummaryDto summary = OwnerSummaryDto.builder()
+                .items(1)
+                .build();
+        when(ownerSummary.get(owner.getId())).thenReturn(summary);
+
+        assertSame(summary, bookingService.getOwnerSummary(owner.getId()), "Метод отработал некорректно");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void countBookingsByBookerUsesSingleAggregate() {
+        BookingStatsView stats = mock(BookingStatsView.class);
+        when(stats.getTotalCount()).thenReturn(4L);
+        when(stats.getWaitingCount()).thenReturn(1L);
+        when(bookingRepository.aggregateByBookerId(eq(user.getId()), any(LocalDateTime.class), eq(Status.WAITING),
+                eq(Status.REJECTED))).thenReturn(stats);
+
+        Map<BookingState, Long> counts = bookingService.countBookings(BookingRole.BOOKER, user.getId());
+        assertEquals(4L, counts.get(BookingState.ALL), "Метод отработал некорректно");
+        assertEquals(1L, counts.get(BookingState.WAITING), "Метод отработал некорректно");
+        assertEquals(0L, counts.get(BookingState.REJECTED), "Метод отработал некорректно");
+        verify(bookingRepository, never()).findBookings(any(BookingQuery.class));
+        verifyNoInteractions(ownerSummary);
+    }
+
+    @Test
+    void countBookingsByOwnerUsesSummaryCounters() {
+        Map<BookingState, Long> states = Map.of(BookingState.ALL, 2L);
+        when(ownerSummary.get(owner.getId())).thenReturn(OwnerSummaryDto.builder()
+                .states(states)
+                .build());
+
+        assertEquals(states, bookingService.countBookings(BookingRole.OWNER, owner.getId()),
+                "Метод отработал некорректно");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingQuery captureQuery() {
+        ArgumentCaptor<BookingQuery> captor = ArgumentCaptor.forClass(BookingQuery.class);
+        verify(bookingRepository, times(1)).findBookings(captor.capture());
+        return captor.getValue();
+    }
+}
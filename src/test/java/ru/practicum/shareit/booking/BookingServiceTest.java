@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
@@ -15,6 +17,7 @@ import ru.practicum.shareit.user.UserRepository;
 
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,14 +78,29 @@ class BookingServiceTest {
 
     @Test
     void createBooking() {
-        Booking booking1 = bookingService.createBooking(bookingDtoRequest, user.getId());
+        Booking booking1 = bookingService.createBooking(bookingDtoRequest, user);
         assertEquals(item.getName(), booking1.getItem().getName());
-        assertEquals(owner, booking1.getItem().getOwner());
+        assertEquals(owner.getId(), booking1.getItem().getOwner().getId());
+    }
+
+    @Test
+    void createBookingsRollbackReleasesReservedIntervals() {
+        BookingDtoRequest overlapping = BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(bookingDtoRequest.getStart().plusHours(1))
+                .end(bookingDtoRequest.getEnd().plusHours(1))
+                .build();
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.createBookings(List.of(bookingDtoRequest, overlapping), user));
+        assertEquals(0, bookingRepository.count());
+
+        Booking booking = bookingService.createBooking(bookingDtoRequest, user);
+        assertNotNull(booking.getId(), "интервал отменённого пакета должен освобождаться после отката");
     }
 
     @Test
     void changeStatus() {
-        Booking booking1 = bookingService.createBooking(bookingDtoRequest, user.getId());
+        Booking booking1 = bookingService.createBooking(bookingDtoRequest, user);
         Booking bookingGetStatus = bookingService.changeStatus(booking1.getId(), owner.getId(), true);
         assertTrue(bookingGetStatus != null);
         assertEquals(bookingDtoRequest.getStart().getSecond(), bookingGetStatus.getStart().getSecond());
@@ -90,7 +108,7 @@ class BookingServiceTest {
 
     @Test
     void getBooking() {
-        Booking addBooking = bookingService.createBooking(bookingDtoRequest, user.getId());
+        Booking addBooking = bookingService.createBooking(bookingDtoRequest, user);
         Booking getBooking = bookingService.getBooking(addBooking.getId(), user.getId());
         assertTrue(getBooking != null);
         assertEquals(bookingDtoRequest.getStart().getSecond(), getBooking.getStart().getSecond());
@@ -98,19 +116,29 @@ class BookingServiceTest {
 
     @Test
     void getAllBookingsByUser() {
-        Booking addBooking = bookingService.createBooking(bookingDtoRequest, user.getId());
+        Booking addBooking = bookingService.createBooking(bookingDtoRequest, user);
         addBooking.setStatus(Status.APPROVED);
         bookingService.changeStatus(addBooking.getId(), owner.getId(), true);
-        List<Booking> bookings = bookingService.getAllBookingsByUser(user.getId(), "ALL", 0, 5);
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsByUser(user.getId(), "ALL", 0, 5);
         assertEquals(1, bookings.size());
         assertEquals(Status.APPROVED, bookings.get(0).getStatus());
     }
 
     @Test
     void getAllBookingsItemsByOwner() {
-        bookingService.createBooking(bookingDtoRequest, user.getId());
-        List<Booking> bookings = bookingService.getAllBookingsItemsByOwner(owner.getId(), "ALL", 0, 5);
+        bookingService.createBooking(bookingDtoRequest, user);
+        List<BookingDtoResponse> bookings = bookingService.getAllBookingsItemsByOwner(owner.getId(), "ALL", 0, 5);
         assertEquals(1, bookings.size());
-        assertEquals(owner, bookings.get(0).getItem().getOwner());
+        assertEquals(item.getId(), bookings.get(0).getItem().getId());
+    }
+
+    @Test
+    void exportBookings() {
+        Booking addBooking = bookingService.createBooking(bookingDtoRequest, user);
+        List<BookingDtoResponse> exported = new ArrayList<>();
+        bookingService.exportBookings(BookingRole.OWNER, owner.getId(), BookingState.ALL, exported::add);
+        assertEquals(1, exported.size());
+        assertEquals(addBooking.getId(), exported.get(0).getId());
+        assertEquals(item.getName(), exported.get(0).getItem().getName());
     }
 }
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingTimelineTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingTimeline timeline;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new BookingTimeline(bookingRepository, 3);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void findLoadsItemOnce() {
+        when(bookingRepository.findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED))
+                .thenReturn(List.of(booking(1L, 1L, now.minusDays(2), Status.APPROVED),
+                        booking(2L, 1L, now.plusDays(1), Status.WAITING)));
+
+        assertEquals(1L, timeline.findLast(1L, now).getId(), "некорректная работа.");
+        assertEquals(2L, timeline.findNext(1L, now).getId(), "некорректная работа.");
+        assertEquals(3L, timeline.findNext(1L, now).getBookerId(), "некорректная работа.");
+        verify(bookingRepository, times(1)).findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED);
+    }
+
+    @Test
+    void eventsUpdateLoadedTimeline() {
+        when(bookingRepository.findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED))
+                .thenReturn(List.of(booking(1L, 1L, now.plusDays(2), Status.WAITING)));
+        assertEquals(1L, timeline.findNext(1L, now).getId(), "некорректная работа.");
+
+        timeline.onBookingEvent(event(BookingEventType.CREATED, booking(2L, 1L, now.plusDays(1), Status.WAITING)));
+        assertEquals(2L, timeline.findNext(1L, now).getId(), "некорректная работа.");
+        timeline.onBookingEvent(event(BookingEventType.REJECTED, booking(2L, 1L, now.plusDays(1), Status.REJECTED)));
+        assertEquals(1L, timeline.findNext(1L, now).getId(), "некорректная работа.");
+        assertNull(timeline.findLast(1L, now), "некорректная работа.");
+    }
+
+    @Test
+    void eventsForUnloadedItemsAreIgnored() {
+        timeline.onBookingEvent(event(BookingEventType.CREATED, booking(1L, 1L, now.plusDays(1), Status.WAITING)));
+
+        assertEquals(0, timeline.items(), "некорректная работа.");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void loadOverBudgetEvictsOtherItems() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        timeline.bindTo(registry);
+        when(bookingRepository.findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED))
+                .thenReturn(List.of(booking(1L, 1L, now.minusDays(2), Status.APPROVED),
+                        booking(2L, 1L, now.minusDays(1), Status.APPROVED)));
+        when(bookingRepository.findAllDtoByItemIdAndStatusNot(2L, Status.REJECTED))
+                .thenReturn(List.of(booking(3L, 2L, now.minusDays(2), Status.APPROVED),
+                        booking(4L, 2L, now.minusDays(1), Status.APPROVED)));
+
+        timeline.findLast(1L, now);
+        assertEquals(2.0, registry.get("booking.timeline.entries").gauge().value(), "некорректная работа.");
+        assertEquals(4L, timeline.findLast(2L, now).getId(), "некорректная работа.");
+        assertEquals(1, timeline.items(), "некорректная работа.");
+        assertEquals(2, timeline.entries(), "некорректная работа.");
+        assertEquals(1.0, registry.get("booking.timeline.evictions").functionCounter().count());
+        assertEquals(2.0, registry.get("booking.timeline.loads").functionCounter().count());
+        assertTrue(registry.get("booking.timeline.footprint").gauge().value() > 0, "некорректная работа.");
+
+        timeline.findLast(1L, now);
+        verify(bookingRepository, times(2)).findAllDtoByItemIdAndStatusNot(1L, Status.REJECTED);
+    }
+
+    private BookingDtoResponse booking(Long id, Long itemId, LocalDateTime start, Status status) {
+        return new BookingDtoResponse(id, start, start.plusHours(1), status, id + 1, itemId, "ноутбук");
+    }
+
+    private BookingEvent event(BookingEventType type, BookingDtoResponse booking) {
+        return new BookingEvent(type, booking.getBooker().getId(), 10L, booking);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookerItemView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentEligibilityIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private AtomicReference<LocalDateTime> clock;
+    private CommentEligibilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicReference<>(LocalDateTime.of(2024, 1, 10, 12, 0));
+        index = new CommentEligibilityIndex(bookingRepository, clock::get);
+    }
+
+    @Test
+    void loadedPairsAreProbedWithoutQuery() {
+        when(bookingRepository.findEndedPairs(clock.get())).thenReturn(List.of(pair(1L, 2L)));
+        index.load();
+
+        assertTrue(index.canComment(1L, 2L), "некорректная работа.");
+        verify(bookingRepository, never()).existsByBookerIdAndItemIdAndEndIsBefore(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void refreshAddsBookingsEndedSinceWatermark() {
+        LocalDateTime loadedAt = clock.get();
+        when(bookingRepository.findEndedPairs(loadedAt)).thenReturn(List.of());
+        index.load();
+        clock.set(loadedAt.plusMinutes(1));
+        when(bookingRepository.findEndedPairsBetween(loadedAt, clock.get())).thenReturn(List.of(pair(3L, 4L)));
+
+        index.refresh();
+        assertTrue(index.canComment(3L, 4L), "некорректная работа.");
+        assertEquals(1, index.size(), "некорректная работа.");
+    }
+
+    @Test
+    void refreshBeforeLoadIsSkipped() {
+        index.refresh();
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void missFallsBackToDatabaseAndRemembersPair() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        index.bindTo(registry);
+        when(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(1L, 2L, clock.get())).thenReturn(true);
+        when(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(1L, 3L, clock.get())).thenReturn(false);
+
+        assertTrue(index.canComment(1L, 2L), "некорректная работа.");
+        assertTrue(index.canComment(1L, 2L), "некорректная работа.");
+        assertFalse(index.canComment(1L, 3L), "некорректная работа.");
+        verify(bookingRepository, times(1)).existsByBookerIdAndItemIdAndEndIsBefore(1L, 2L, clock.get());
+        assertEquals(1.0, registry.get("comment.eligibility.checks").tag("source", "index").functionCounter().count());
+        assertEquals(2.0, registry.get("comment.eligibility.checks").tag("source", "database")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("comment.eligibility.pairs").gauge().value());
+    }
+
+    @Test
+    void idsOutsideIndexRangeAlwaysUseDatabase() {
+        long bookerId = Integer.MAX_VALUE + 1L;
+        when(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(bookerId, 2L, clock.get())).thenReturn(true);
+
+        assertTrue(index.canComment(bookerId, 2L), "некорректная работа.");
+        assertTrue(index.canComment(bookerId, 2L), "некорректная работа.");
+        assertEquals(0, index.size(), "некорректная работа.");
+        verify(bookingRepository, times(2)).existsByBookerIdAndItemIdAndEndIsBefore(bookerId, 2L, clock.get());
+    }
+
+    private BookerItemView pair(Long bookerId, Long itemId) {
+        return new BookerItemView() {
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+        };
+    }
+}
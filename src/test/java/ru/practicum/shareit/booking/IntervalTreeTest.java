@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void overlapsUsesHalfOpenIntervals() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 20, 1);
+        assertTrue(tree.overlaps(15, 25), "некорректная работа.");
+        assertTrue(tree.overlaps(5, 11), "некорректная работа.");
+        assertFalse(tree.overlaps(20, 30), "некорректная работа.");
+        assertFalse(tree.overlaps(0, 10), "некорректная работа.");
+    }
+
+    @Test
+    void removeFreesInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 20, 1);
+        tree.insert(10, 30, 2);
+        assertTrue(tree.remove(10, 2), "некорректная работа.");
+        assertFalse(tree.remove(10, 3), "некорректная работа.");
+        assertEquals(1, tree.size(), "некорректная работа.");
+        assertFalse(tree.overlaps(20, 30), "некорректная работа.");
+    }
+
+    @Test
+    void removeEndedBeforeDropsOnlyFinishedIntervals() {
+        Random random = new Random(7);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(50);
+            tree.insert(start, end, i);
+            intervals.add(new long[]{start, end, i});
+        }
+        long expected = intervals.stream().filter(interval -> interval[1] <= 5_000).count();
+        assertEquals(expected, tree.removeEndedBefore(5_000), "некорректная работа.");
+        assertEquals(500 - expected, tree.size(), "некорректная работа.");
+        for (long[] interval : intervals) {
+            assertEquals(interval[1] > 5_000, tree.remove(interval[0], interval[2]), "некорректная работа.");
+        }
+        assertEquals(0, tree.size(), "некорректная работа.");
+    }
+
+    @Test
+    void overlapsMatchesBruteForce() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(50);
+            tree.insert(start, end, i);
+            intervals.add(new long[]{start, end, i});
+        }
+        for (int i = 0; i < 100; i++) {
+            long[] removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(removed[0], removed[2]), "некорректная работа.");
+        }
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(10_100);
+            long end = start + 1 + random.nextInt(30);
+            boolean expected = intervals.stream().anyMatch(interval -> interval[0] < end && start < interval[1]);
+            assertEquals(expected, tree.overlaps(start, end), "некорректная работа.");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemTimelineTest {
+
+    @Test
+    void lastAndNextUseBinarySearchOverStarts() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.put(30, 40, 3, 7);
+        timeline.put(10, 20, 1, 5);
+        timeline.put(20, 30, 2, 6);
+
+        assertEquals(2, timeline.id(timeline.last(25)), "некорректная работа.");
+        assertEquals(3, timeline.id(timeline.next(25)), "некорректная работа.");
+        assertEquals(2, timeline.id(timeline.last(20)), "начало в текущий момент относится к прошлому.");
+        assertEquals(-1, timeline.last(5), "некорректная работа.");
+        assertEquals(-1, timeline.next(30), "некорректная работа.");
+        assertEquals(7, timeline.bookerId(timeline.last(100)), "некорректная работа.");
+    }
+
+    @Test
+    void putReplacesBookingWithSameId() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.put(10, 20, 1, 5);
+        timeline.put(50, 60, 1, 5);
+
+        assertEquals(1, timeline.size(), "некорректная работа.");
+        assertEquals(50, timeline.start(0), "некорректная работа.");
+        assertEquals(60, timeline.end(0), "некорректная работа.");
+    }
+
+    @Test
+    void removeKeepsOrderAndGrowsCapacity() {
+        ItemTimeline timeline = new ItemTimeline();
+        for (int i = 10; i > 0; i--) {
+            timeline.put(i * 10, i * 10 + 5, i, 100 + i);
+        }
+        assertEquals(16 * ItemTimeline.ENTRY_BYTES, timeline.footprint(), "некорректная работа.");
+
+        assertTrue(timeline.remove(5), "некорректная работа.");
+        assertFalse(timeline.remove(5), "некорректная работа.");
+        assertEquals(9, timeline.size(), "некорректная работа.");
+        assertEquals(4, timeline.id(timeline.last(55)), "некорректная работа.");
+        assertEquals(6, timeline.id(timeline.next(55)), "некорректная работа.");
+    }
+}
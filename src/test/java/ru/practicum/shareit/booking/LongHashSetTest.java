@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void addAndContains() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(1L << 32 | 7), "некорректная работа.");
+        assertFalse(set.add(1L << 32 | 7), "некорректная работа.");
+        assertTrue(set.contains(1L << 32 | 7), "некорректная работа.");
+        assertFalse(set.contains(7L << 32 | 1), "некорректная работа.");
+        assertFalse(set.contains(0), "некорректная работа.");
+        assertEquals(1, set.size(), "некорректная работа.");
+    }
+
+    @Test
+    void growsAndKeepsKeys() {
+        LongHashSet set = new LongHashSet();
+        for (long i = 1; i <= 1000; i++) {
+            set.add(i << 32 | i);
+        }
+
+        assertEquals(1000, set.size(), "некорректная работа.");
+        assertEquals(2048 * Long.BYTES, set.footprint(), "некорректная работа.");
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.contains(i << 32 | i), "ключ потерян при расширении: " + i);
+        }
+    }
+
+    @Test
+    void zeroKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet().add(0));
+    }
+}
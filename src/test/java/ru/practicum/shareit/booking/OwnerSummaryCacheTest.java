@@ -0,0 +1,228 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingStatsView;
+import ru.practicum.shareit.booking.dto.OwnerSummaryDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerSummaryCacheTest {
+    private static final Long OWNER_ID = 1L;
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private OwnerSummaryCache cache;
+    private LocalDateTime now;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2024, 1, 10, 12, 0);
+        cache = new OwnerSummaryCache(bookingRepository, itemRepository, () -> now);
+        item = Item.builder()
+                .id(1L)
+                .name("ноутбук")
+                .description("мощный ноутбук")
+                .available(true)
+                .build();
+        booker = User.builder()
+                .id(2L)
+                .name("Ivan")
+                .email("ivan@yandex.ru")
+                .build();
+    }
+
+    @Test
+    void getReconcilesOnceThenServesCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        stubReconcile(stats(3, 1, 1, 1, 1, 1, 1, now.plusDays(1), now.plusHours(5)));
+
+        OwnerSummaryDto first = cache.get(OWNER_ID);
+        OwnerSummaryDto second = cache.get(OWNER_ID);
+        assertEquals(first, second, "некорректная работа.");
+        assertEquals(3L, second.getStates().get(BookingState.ALL), "некорректная работа.");
+        assertEquals(1L, second.getStates().get(BookingState.CURRENT), "некорректная работа.");
+        assertEquals(1L, second.getPendingApprovals(), "некорректная работа.");
+        assertEquals(2L, second.getItems(), "некорректная работа.");
+        verify(bookingRepository, times(1)).aggregateByOwnerId(OWNER_ID, now, Status.WAITING, Status.REJECTED);
+        assertEquals(1.0, registry.get("owner.summary.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("owner.summary.reconciliations").functionCounter().count());
+        assertEquals(1.0, registry.get("owner.summary.owners").gauge().value());
+    }
+
+    @Test
+    void bookingCreatedUpdatesLoadedCounters() {
+        stubReconcile(stats(0, 0, 0, 0, 0, 0, 0, null, null));
+        cache.get(OWNER_ID);
+
+        Booking created = booking(5L, now.plusDays(1), now.plusDays(2), Status.WAITING);
+        cache.bookingCreated(OWNER_ID, created);
+        cache.itemsCreated(OWNER_ID, 3);
+        OwnerSummaryDto summary = cache.get(OWNER_ID);
+        assertEquals(1L, summary.getStates().get(BookingState.ALL), "некорректная работа.");
+        assertEquals(1L, summary.getStates().get(BookingState.FUTURE), "некорректная работа.");
+        assertEquals(1L, summary.getStates().get(BookingState.WAITING), "некорректная работа.");
+        assertEquals(1L, summary.getPendingApprovals(), "некорректная работа.");
+        assertEquals(5L, summary.getItems(), "некорректная работа.");
+        assertEquals(created.getId(), summary.getNextBooking().getId(), "некорректная работа.");
+        verify(bookingRepository, times(1)).aggregateByOwnerId(any(), any(), any(), any());
+    }
+
+    @Test
+    void statusChangedMovesBookingBetweenStates() {
+        stubReconcile(stats(1, 0, 0, 1, 1, 0, 1, now.plusDays(1), now.plusDays(2)));
+        cache.get(OWNER_ID);
+
+        Booking changed = booking(5L, now.plusDays(1), now.plusDays(2), Status.REJECTED);
+        cache.statusChanged(OWNER_ID, changed, Status.WAITING);
+        OwnerSummaryDto summary = cache.get(OWNER_ID);
+        assertEquals(0L, summary.getStates().get(BookingState.WAITING), "некорректная работа.");
+        assertEquals(1L, summary.getStates().get(BookingState.REJECTED), "некорректная работа.");
+        assertEquals(0L, summary.getPendingApprovals(), "некорректная работа.");
+    }
+
+    @Test
+    void getReconcilesAfterTimeBoundary() {
+        stubReconcile(stats(1, 1, 0, 0, 0, 0, 0, null, now.plusHours(1)));
+        cache.get(OWNER_ID);
+
+        now = now.plusHours(2);
+        cache.get(OWNER_ID);
+        verify(bookingRepository, times(2)).aggregateByOwnerId(any(), any(), any(), any());
+    }
+
+    @Test
+    void reconcileAllDropsIdleOwners() {
+        stubReconcile(stats(0, 0, 0, 0, 0, 0, 0, null, null));
+        cache.get(OWNER_ID);
+
+        cache.reconcileAll();
+        assertEquals(1, cache.size(), "некорректная работа.");
+        cache.reconcileAll();
+        assertEquals(0, cache.size(), "некорректная работа.");
+        verify(bookingRepository, times(2)).aggregateByOwnerId(any(), any(), any(), any());
+    }
+
+    @Test
+    void reconcileBeforeAfterCommitIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.bookingCreated(OWNER_ID, booking(5L, now.plusDays(1), now.plusDays(2), Status.WAITING));
+            stubReconcile(stats(1, 0, 0, 1, 1, 0, 1, now.plusDays(1), null));
+            assertEquals(1L, cache.get(OWNER_ID).getStates().get(BookingState.ALL), "некорректная работа.");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, cache.size(), "некорректная работа.");
+        assertEquals(1L, cache.get(OWNER_ID).getStates().get(BookingState.ALL), "некорректная работа.");
+        assertEquals(1, cache.size(), "некорректная работа.");
+        verify(bookingRepository, times(2)).aggregateByOwnerId(any(), any(), any(), any());
+    }
+
+    @Test
+    void updatesForUnloadedOwnersAreIgnored() {
+        cache.bookingCreated(OWNER_ID, booking(5L, now.plusDays(1), now.plusDays(2), Status.WAITING));
+        cache.itemsCreated(OWNER_ID, 1);
+
+        assertEquals(0, cache.size(), "некорректная работа.");
+        verifyNoInteractions(bookingRepository, itemRepository);
+    }
+
+    private void stubReconcile(BookingStatsView stats) {
+        when(bookingRepository.aggregateByOwnerId(eq(OWNER_ID), any(), eq(Status.WAITING), eq(Status.REJECTED)))
+                .thenReturn(stats);
+        when(bookingRepository.findUpcomingByOwnerId(eq(OWNER_ID), any(), eq(Status.REJECTED), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(itemRepository.countByOwnerId(OWNER_ID)).thenReturn(2L);
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end, Status status) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build();
+    }
+
+    private static BookingStatsView stats(long total, long current, long past, long future, long waiting,
+                                          long rejected, long pending, LocalDateTime nextStart,
+                                          LocalDateTime nextEnd) {
+        return new BookingStatsView() {
+            @Override
+            public Long getTotalCount() {
+                return total;
+            }
+
+            @Override
+            public Long getCurrentCount() {
+                return current;
+            }
+
+            @Override
+            public Long getPastCount() {
+                return past;
+            }
+
+            @Override
+            public Long getFutureCount() {
+                return future;
+            }
+
+            @Override
+            public Long getWaitingCount() {
+                return waiting;
+            }
+
+            @Override
+            public Long getRejectedCount() {
+                return rejected;
+            }
+
+            @Override
+            public Long getPendingCount() {
+                return pending;
+            }
+
+            @Override
+            public LocalDateTime getNextStart() {
+                return nextStart;
+            }
+
+            @Override
+            public LocalDateTime getNextEnd() {
+                return nextEnd;
+            }
+        };
+    }
+}
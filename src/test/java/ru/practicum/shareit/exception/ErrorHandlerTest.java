@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.exceptions.*;
 
+import javax.validation.ConstraintViolationException;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ErrorHandlerTest {
@@ -69,4 +72,32 @@ class ErrorHandlerTest {
         ErrorResponse errorResponse = errorHandler.wrongAuthorException(wrongAuthorException);
         assertEquals(wrongAuthorException.getMessage(), errorResponse.getError());
     }
-}
\ No newline at end of file
+
+    @Test
+    void bookingOverlapException() {
+        BookingOverlapException bookingOverlapException = new BookingOverlapException("error");
+        ErrorResponse errorResponse = errorHandler.bookingOverlapException(bookingOverlapException);
+        assertEquals(bookingOverlapException.getMessage(), errorResponse.getError());
+    }
+
+    @Test
+    void wrongCursorException() {
+        WrongCursorException wrongCursorException = new WrongCursorException("error");
+        ErrorResponse errorResponse = errorHandler.wrongCursorException(wrongCursorException);
+        assertEquals(wrongCursorException.getMessage(), errorResponse.getError());
+    }
+
+    @Test
+    void wrongImportFormatException() {
+        WrongImportFormatException wrongImportFormatException = new WrongImportFormatException("error");
+        ErrorResponse errorResponse = errorHandler.wrongImportFormatException(wrongImportFormatException);
+        assertEquals(wrongImportFormatException.getMessage(), errorResponse.getError());
+    }
+
+    @Test
+    void constraintViolationException() {
+        ConstraintViolationException constraintViolationException = new ConstraintViolationException("error", Set.of());
+        ErrorResponse errorResponse = errorHandler.constraintViolationException(constraintViolationException);
+        assertEquals(constraintViolationException.getMessage(), errorResponse.getError());
+    }
+}
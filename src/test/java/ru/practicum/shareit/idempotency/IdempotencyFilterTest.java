@@ -0,0 +1,201 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+    private IdempotencyFilter filter;
+    private AtomicInteger calls;
+    private FilterChain echo;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(new ObjectMapper(), 100, 60_000, 5_000);
+        calls = new AtomicInteger();
+        echo = (request, response) -> {
+            calls.incrementAndGet();
+            String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            response.getOutputStream().write(("{\"id\":" + calls.get() + ",\"body\":" + body + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    @SneakyThrows
+    void repeatedRequestReplaysStoredResponse() {
+        MockHttpServletResponse first = perform(request("/users", "k1", "{}"), echo);
+        MockHttpServletResponse second = perform(request("/users", "k1", "{}"), echo);
+
+        assertEquals(1, calls.get());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("{\"id\":1,\"body\":{}}", second.getContentAsString());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @SneakyThrows
+    void keyIsScopedByUserAndPath() {
+        perform(request("/items", "k1", "{}"), echo);
+        MockHttpServletRequest otherUser = request("/items", "k1", "{}");
+        otherUser.removeHeader("X-Sharer-User-Id");
+        otherUser.addHeader("X-Sharer-User-Id", "2");
+        perform(otherUser, echo);
+        perform(request("/requests", "k1", "{}"), echo);
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void cachedBodySupportsReadListener() {
+        StringBuilder read = new StringBuilder();
+        AtomicInteger completed = new AtomicInteger();
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.append((char) input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    completed.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+        };
+        perform(request("/users", "k1", "{}"), asyncReader);
+
+        assertEquals("{}", read.toString());
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void sameKeyWithDifferentBodyException() {
+        perform(request("/bookings", "k1", "{\"itemId\":1}"), echo);
+        MockHttpServletResponse response = perform(request("/bookings", "k1", "{\"itemId\":2}"), echo);
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void serverErrorIsNotStored() {
+        FilterChain failing = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        };
+        perform(request("/users", "k1", "{}"), failing);
+        MockHttpServletResponse response = perform(request("/users", "k1", "{}"), echo);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void requestsWithoutKeyOrOtherMethodsPassThrough() {
+        MockHttpServletRequest withoutKey = request("/users", "k1", "{}");
+        withoutKey.removeHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER);
+        perform(withoutKey, echo);
+        perform(withoutKey, echo);
+        MockHttpServletRequest patch = request("/users", "k1", "{}");
+        patch.setMethod("PATCH");
+        perform(patch, echo);
+        perform(patch, echo);
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentDuplicateWaitsForFirst() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            echo.doFilter(request, response);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform(request("/items", "k1", "{}"), slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread waiter = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            });
+            waiter.start();
+            MockHttpServletResponse second = perform(request("/items", "k1", "{}"), echo);
+
+            assertEquals(first.get(5, TimeUnit.SECONDS).getContentAsString(), second.getContentAsString());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void tooLongKeyException() {
+        MockHttpServletResponse response = perform(request("/users", "k".repeat(256), "{}"), echo);
+
+        assertEquals(400, response.getStatus());
+        assertEquals(0, calls.get());
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.addHeader("X-Sharer-User-Id", "1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private AtomicLong clock;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        store = new IdempotencyStore(2, 1000, clock::get);
+    }
+
+    @Test
+    void putIfAbsentReturnsExisting() {
+        IdempotencyStore.Entry first = new IdempotencyStore.Entry(new byte[]{1});
+
+        assertNull(store.putIfAbsent("a", first));
+        assertSame(first, store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+    }
+
+    @Test
+    void putIfAbsentExpiresAfterTtl() {
+        store.putIfAbsent("a", completed(new byte[]{1}));
+        clock.addAndGet(1_000_000_000L);
+
+        assertNull(store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void putIfAbsentEvictsEldestOverCapacity() {
+        store.putIfAbsent("a", completed(new byte[]{1}));
+        store.putIfAbsent("b", completed(new byte[]{2}));
+        store.putIfAbsent("c", completed(new byte[]{3}));
+
+        assertEquals(2, store.size());
+        assertNull(store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+    }
+
+    @Test
+    void putIfAbsentKeepsInFlightEntries() {
+        IdempotencyStore.Entry inFlight = new IdempotencyStore.Entry(new byte[]{1});
+        store.putIfAbsent("a", inFlight);
+        store.putIfAbsent("b", completed(new byte[]{2}));
+        store.putIfAbsent("c", completed(new byte[]{3}));
+
+        assertEquals(2, store.size());
+        assertSame(inFlight, store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+        assertNull(store.putIfAbsent("b", new IdempotencyStore.Entry(new byte[]{2})));
+
+        clock.addAndGet(1_000_000_000L);
+        assertSame(inFlight, store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+        inFlight.getResponse().complete(null);
+        assertNull(store.putIfAbsent("d", new IdempotencyStore.Entry(new byte[]{4})));
+        assertNull(store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+    }
+
+    @Test
+    void removeKeepsNewerEntry() {
+        IdempotencyStore.Entry first = new IdempotencyStore.Entry(new byte[]{1});
+        store.putIfAbsent("a", first);
+        store.remove("a", new IdempotencyStore.Entry(new byte[]{1}));
+
+        assertSame(first, store.putIfAbsent("a", new IdempotencyStore.Entry(new byte[]{1})));
+    }
+
+    private static IdempotencyStore.Entry completed(byte[] fingerprint) {
+        IdempotencyStore.Entry entry = new IdempotencyStore.Entry(fingerprint);
+        entry.getResponse().complete(null);
+        return entry;
+    }
+}
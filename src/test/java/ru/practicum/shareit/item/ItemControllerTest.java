@@ -9,24 +9,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +44,10 @@ class ItemControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private ItemImportService itemImportService;
+    @MockBean
+    private UserCache userCache;
 
     private User user;
     private ItemRequest itemRequest;
@@ -69,12 +78,14 @@ class ItemControllerTest {
                 .request(itemRequest)
                 .build();
         itemDto = ItemMapper.toDto(item);
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userCache.get(anyLong())).thenReturn(Optional.of(user));
     }
 
     @SneakyThrows
     @Test
     void createItemValid() {
-        when(itemService.createItem(any(ItemDto.class), anyLong())).thenReturn(item);
+        when(itemService.createItem(any(ItemDto.class), any(User.class))).thenReturn(item);
 
         mockMvc.perform(post("/items")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -84,7 +95,7 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(itemDto.getId()))
                 .andExpect(jsonPath("$.name").value(itemDto.getName()));
-        verify(itemService, times(1)).createItem(itemDto, user.getId());
+        verify(itemService, times(1)).createItem(itemDto, user);
     }
 
     @SneakyThrows
@@ -111,7 +122,7 @@ class ItemControllerTest {
     @SneakyThrows
     @Test
     void updateItemValid() {
-        when(itemService.updateItem(itemDto, user.getId(),  item.getId())).thenReturn(item);
+        when(itemService.updateItem(itemDto, user, item.getId())).thenReturn(item);
         mockMvc.perform(patch("/items/{id}", item.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemDto))
@@ -123,6 +134,75 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.description").value(itemDto.getDescription()));
     }
 
+    @SneakyThrows
+    @Test
+    void createItemsBatchValid() {
+        when(itemService.createItems(anyList(), any(User.class))).thenReturn(List.of(item));
+
+        mockMvc.perform(post("/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto)))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(itemDto.getId()))
+                .andExpect(jsonPath("$[0].name").value(itemDto.getName()));
+        verify(itemService, times(1)).createItems(List.of(itemDto), user);
+    }
+
+    @SneakyThrows
+    @Test
+    void createItemsBatchNotValidException() {
+        ItemDto notValid = ItemDto.builder()
+                .name("")
+                .description("")
+                .available(true)
+                .build();
+
+        mockMvc.perform(post("/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto, notValid)))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).createItems(anyList(), any(User.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItemsNdjsonValid() {
+        ItemImportReport report = new ItemImportReport();
+        report.setImported(1);
+        when(itemImportService.importNdjson(any(), any(User.class))).thenReturn(report);
+
+        mockMvc.perform(post("/items/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(itemDto))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(0));
+        verify(itemImportService, times(1)).importNdjson(any(), eq(user));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItemsCsvValid() {
+        ItemImportReport report = new ItemImportReport();
+        report.setImported(1);
+        when(itemImportService.importCsv(any(), any(User.class))).thenReturn(report);
+
+        mockMvc.perform(post("/items/import")
+                        .contentType(ItemImportService.TEXT_CSV_VALUE)
+                        .content("name,description,available\nноутбук,новый ноутбук,true")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+        verify(itemImportService, times(1)).importCsv(any(), eq(user));
+    }
+
     @SneakyThrows
     @Test
     void getItemByIdValid() {
@@ -135,7 +215,8 @@ class ItemControllerTest {
                 .bookerId(3L)
                 .build();
         List<CommentDto> comments = new ArrayList<>();
-        ItemWithBookingAndComments andBookings = ItemMapper.toItemWithBAndC(item, last, next, comments);
+        ItemWithBookingAndComments andBookings = ItemMapper.toItemWithBAndC(item, last, next,
+                new CommentWindow(comments, 0));
 
         when(itemService.getItemById(item.getId(), user.getId())).thenReturn(andBookings);
 
@@ -148,10 +229,57 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value(andBookings.getName()));
     }
 
+    @SneakyThrows
+    @Test
+    void getCommentsReturnsPageWithCursor() {
+        CommentDto commentDto = CommentDto.builder()
+                .id(3L)
+                .text("text")
+                .authorName("Ivan")
+                .created(LocalDateTime.of(2024, 1, 10, 12, 0))
+                .build();
+        CommentCursor after = new CommentCursor(LocalDateTime.of(2024, 2, 1, 0, 0), 10L);
+
+        when(itemService.getComments(eq(item.getId()), any(CommentCursor.class), eq(1)))
+                .thenReturn(List.of(commentDto));
+
+        mockMvc.perform(get("/items/{id}/comments", item.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1")
+                        .param("after", after.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(commentDto.getId()))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, CommentCursor.of(commentDto).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getCommentsLastPageWithoutCursor() {
+        when(itemService.getComments(item.getId(), null, 20)).thenReturn(List.of());
+
+        mockMvc.perform(get("/items/{id}/comments", item.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @SneakyThrows
+    @Test
+    void getCommentsNotValidCursor() {
+        mockMvc.perform(get("/items/{id}/comments", item.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, "1")
+                        .param("after", "не-курсор"))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).getComments(anyLong(), any(), anyInt());
+    }
+
     @SneakyThrows
     @Test
     void getAllItemsByTextValid() {
-        List<Item> itemList = List.of(item);
+        List<ItemDto> itemList = List.of(ItemMapper.toDto(item));
 
         when(itemService.getAllItemsByText(anyString(), anyInt(), anyInt())).thenReturn(itemList);
 
@@ -179,7 +307,8 @@ class ItemControllerTest {
                 .bookerId(3L)
                 .build();
         List<CommentDto> comments = new ArrayList<>();
-        ItemWithBookingAndComments andBookings1 = ItemMapper.toItemWithBAndC(item, last, next, comments);
+        ItemWithBookingAndComments andBookings1 = ItemMapper.toItemWithBAndC(item, last, next,
+                new CommentWindow(comments, 0));
         List<ItemWithBookingAndComments> andBookings = List.of(andBookings1);
 
         when(itemService.getAllItemsByUser(anyLong(), anyInt(), anyInt())).thenReturn(andBookings);
@@ -205,7 +334,7 @@ class ItemControllerTest {
                 .build();
         Comment comment = CommentMapper.toComment(commentDtoInput, user, item);
 
-        when(itemService.createComment(any(CommentDtoRequest.class), anyLong(), anyLong()))
+        when(itemService.createComment(any(CommentDtoRequest.class), any(User.class), anyLong()))
                 .thenReturn(comment);
 
         mockMvc.perform(post("/items/{itemId}/comment", item.getId())
@@ -228,7 +357,7 @@ class ItemControllerTest {
                 .build();
         Comment comment = CommentMapper.toComment(commentDtoInput, user, item);
 
-        when(itemService.createComment(any(CommentDtoRequest.class), anyLong(), anyLong()))
+        when(itemService.createComment(any(CommentDtoRequest.class), any(User.class), anyLong()))
                 .thenReturn(comment);
         mockMvc.perform(post("/items/{itemId}/comment", item.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCsvParserTest {
+
+    @Test
+    void parseMapsColumnsByHeader() {
+        ItemCsvParser parser = new ItemCsvParser("available, requestId ,name,description");
+
+        ItemDto itemDto = parser.parse("TRUE,7,дрель,мощная дрель");
+        assertEquals("дрель", itemDto.getName());
+        assertEquals("мощная дрель", itemDto.getDescription());
+        assertTrue(itemDto.getAvailable());
+        assertEquals(7L, itemDto.getRequestId());
+    }
+
+    @Test
+    void parseQuotedValues() {
+        ItemCsvParser parser = new ItemCsvParser("name,description,available");
+
+        ItemDto itemDto = parser.parse("\"дрель, ударная\",\"с \"\"насадками\"\"\",false");
+        assertEquals("дрель, ударная", itemDto.getName());
+        assertEquals("с \"насадками\"", itemDto.getDescription());
+        assertFalse(itemDto.getAvailable());
+        assertNull(itemDto.getRequestId());
+    }
+
+    @Test
+    void parseQuotedValueWithLineBreaks() {
+        ItemCsvParser parser = new ItemCsvParser("name,description,available");
+
+        ItemDto itemDto = parser.parse("дрель,\"первая строка\n\nтретья строка\",true");
+        assertEquals("первая строка\n\nтретья строка", itemDto.getDescription());
+        assertTrue(ItemCsvParser.hasOddQuotes("дрель,\"первая строка"));
+        assertFalse(ItemCsvParser.hasOddQuotes("\"с \"\"насадками\"\"\",true"));
+    }
+
+    @Test
+    void parseBlankValuesAsNull() {
+        ItemCsvParser parser = new ItemCsvParser("name,description,available,requestId");
+
+        ItemDto itemDto = parser.parse(",описание,,");
+        assertNull(itemDto.getName());
+        assertNull(itemDto.getAvailable());
+        assertNull(itemDto.getRequestId());
+    }
+
+    @Test
+    void headerWithoutRequiredColumnException() {
+        assertThrows(IllegalArgumentException.class, () -> new ItemCsvParser("name,available"));
+    }
+
+    @Test
+    void parseNotValidException() {
+        ItemCsvParser parser = new ItemCsvParser("name,description,available,requestId");
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("дрель,дрель,да,"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("дрель,дрель,true,один"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("дрель,дрель,true"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("\"дрель,дрель,true,"));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exceptions.WrongImportFormatException;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"shareit.import.chunk-size=2", "shareit.import.max-errors=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemImportServiceTest {
+    @Autowired
+    private ItemImportService importService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    private User owner;
+    private ItemRequest itemRequest;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder()
+                .email("old@yandex.ru")
+                .name("old")
+                .build();
+        userRepository.save(owner);
+        User requester = User.builder()
+                .email("new@yandex.ru")
+                .name("new")
+                .build();
+        userRepository.save(requester);
+        itemRequest = ItemRequest.builder()
+                .description("new request")
+                .created(LocalDateTime.now())
+                .requester(requester)
+                .build();
+        itemRequestRepository.save(itemRequest);
+    }
+
+    @Test
+    void importNdjsonSavesValidRowsAndReportsInvalid() {
+        String body = "{\"name\":\"дрель\",\"description\":\"мощная дрель\",\"available\":true}\n"
+                + "\n"
+                + "{\"name\":\"\",\"description\":\"пусто\",\"available\":true}\n"
+                + "{\"name\":\"мышь\",\"description\":\"игровая мышь\",\"available\":false,\"requestId\":"
+                + itemRequest.getId() + "}\n"
+                + "{\"name\":\"пила\",\"description\":\"пила\",\"available\":true,\"requestId\":999}\n"
+                + "{не json\n"
+                + "{\"name\":\"клавиатура\",\"description\":\"механическая\",\"available\":true}\n";
+
+        ItemImportReport report = importService.importNdjson(stream(body), owner);
+        assertEquals(3, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(2, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getError().startsWith("name"));
+        assertEquals(6, report.getErrors().get(1).getLine());
+
+        List<Item> items = itemRepository.findAll();
+        assertEquals(3, items.size());
+        assertTrue(items.stream().allMatch(item -> item.getOwner().getId().equals(owner.getId())));
+        assertEquals(1, searchIndex.search("мощная").orElseThrow().size());
+    }
+
+    @Test
+    void importCsvSavesValidRows() {
+        String body = "name,description,available,requestId\n"
+                + "дрель,\"мощная дрель, ударная\",true,\n"
+                + "мышь,игровая мышь,false," + itemRequest.getId() + "\n"
+                + "пила,пила,может быть,\n";
+
+        ItemImportReport report = importService.importCsv(stream(body), owner);
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(4, report.getErrors().get(0).getLine());
+        assertEquals(2, itemRepository.findAll().size());
+    }
+
+    @Test
+    void importCsvJoinsQuotedLineBreaks() {
+        String body = "name,description,available\n"
+                + "дрель,\"мощная\n\nударная дрель\",true\n"
+                + "пила,пила,может быть\n"
+                + "мышь,\"игровая мышь,true\n";
+
+        ItemImportReport report = importService.importCsv(stream(body), owner);
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(5, report.getErrors().get(0).getLine());
+        assertEquals(6, report.getErrors().get(1).getLine());
+        assertEquals("мощная\n\nударная дрель", itemRepository.findAll().get(0).getDescription());
+    }
+
+    @Test
+    void importCsvWithoutHeaderException() {
+        assertThrows(WrongImportFormatException.class,
+                () -> importService.importCsv(stream("дрель,дрель,true\n"), owner));
+        assertThrows(WrongImportFormatException.class, () -> importService.importCsv(stream(""), owner));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
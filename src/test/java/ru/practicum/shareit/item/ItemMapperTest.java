@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentWindow;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
 import ru.practicum.shareit.request.ItemRequest;
@@ -85,9 +86,10 @@ class ItemMapperTest {
                 .bookerId(1L).build();
         BookingShort next = BookingShort.builder()
                 .id(2L).bookerId(2L).build();
-        ItemWithBookingAndComments item1 = ItemMapper.toItemWithBAndC(item, last, next, list);
+        ItemWithBookingAndComments item1 = ItemMapper.toItemWithBAndC(item, last, next, new CommentWindow(list, 5));
         assertEquals(item1.getDescription(), item.getDescription(), "некорректная работа.");
         assertEquals(item1.getLastBooking(), last, "некорректная работа.");
         assertEquals(item1.getComments().get(0), commentDto, "некорректная работа.");
+        assertEquals(5L, item1.getCommentsCount(), "некорректная работа.");
     }
 }
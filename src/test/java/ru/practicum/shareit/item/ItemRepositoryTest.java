@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.request.ItemRequest;
@@ -59,22 +60,30 @@ class ItemRepositoryTest {
 
     @Test
     void findAllByOwnerId() {
-        List<Item> itemList = itemRepository.findAllByOwnerId(user.getId(), PageRequest.of(0, 5));
+        List<ItemDto> itemList = itemRepository.findAllByOwnerId(user.getId(), PageRequest.of(0, 5));
         assertEquals(1, itemList.size());
-        assertTrue(itemList.contains(item));
+        assertEquals(item.getId(), itemList.get(0).getId());
+        assertEquals(request.getId(), itemList.get(0).getRequestId());
     }
 
     @Test
-    void findAllByRequest() {
-        List<Item> itemList = itemRepository.findAllByRequest(request);
+    void findAllByRequestIdIn() {
+        List<ItemDto> itemList = itemRepository.findAllByRequestIdIn(List.of(request.getId()));
         assertEquals(1, itemList.size());
-        assertEquals("new@yandex.ru", itemList.get(0).getRequest().getRequester().getEmail());
+        assertEquals(request.getId(), itemList.get(0).getRequestId());
+    }
+
+    @Test
+    void findAllDtoByIdIn() {
+        List<ItemDto> itemList = itemRepository.findAllDtoByIdIn(List.of(item.getId()));
+        assertEquals(1, itemList.size());
+        assertEquals(item.getName(), itemList.get(0).getName());
     }
 
     @Test
     void searchWithPagination() {
         String text = "новый ноутбук";
-        List<Item> itemList = itemRepository.searchWithPagination(text, PageRequest.of(0, 5));
+        List<ItemDto> itemList = itemRepository.searchWithPagination(text, PageRequest.of(0, 5));
         assertEquals(1, itemList.size());
         assertEquals(text, itemList.get(0).getDescription());
     }
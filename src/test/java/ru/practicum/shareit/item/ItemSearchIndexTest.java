@@ -0,0 +1,115 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex searchIndex;
+    private Item drill;
+    private Item mouse;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ItemSearchIndex(itemRepository);
+        drill = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .build();
+        mouse = Item.builder()
+                .id(2L)
+                .name("Мышь")
+                .description("Игровая мышь")
+                .available(true)
+                .build();
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(drill, mouse));
+        searchIndex.load();
+    }
+
+    @Test
+    void searchByNameAndDescription() {
+        assertEquals(Optional.of(List.of(1L)), searchIndex.search("дрель"), "поиск отработал некорректно");
+        assertEquals(Optional.of(List.of(2L)), searchIndex.search("игровая"), "поиск отработал некорректно");
+        assertEquals(Optional.of(List.of()), searchIndex.search("ноутбук"), "поиск отработал некорректно");
+    }
+
+    @Test
+    void searchRejectsTrigramFalsePositives() {
+        Item item = Item.builder()
+                .id(3L)
+                .name("абвгд")
+                .description("вгдабв")
+                .available(true)
+                .build();
+        searchIndex.index(item);
+        assertEquals(Optional.of(List.of()), searchIndex.search("абвгдаб"), "поиск отработал некорректно");
+    }
+
+    @Test
+    void indexFollowsAvailabilityUpdates() {
+        mouse.setAvailable(false);
+        searchIndex.index(mouse);
+        assertEquals(Optional.of(List.of()), searchIndex.search("мышь"), "поиск отработал некорректно");
+
+        mouse.setAvailable(true);
+        mouse.setDescription("Беспроводная мышь");
+        searchIndex.index(mouse);
+        assertEquals(Optional.of(List.of(2L)), searchIndex.search("беспроводная"), "поиск отработал некорректно");
+        assertEquals(Optional.of(List.of()), searchIndex.search("игровая"), "поиск отработал некорректно");
+    }
+
+    @Test
+    void indexAppliesOnlyCommittedChanges() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            mouse.setDescription("Беспроводная мышь");
+            searchIndex.index(mouse);
+            assertEquals(Optional.of(List.of()), searchIndex.search("беспроводная"), "поиск отработал некорректно");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(Optional.of(List.of(2L)), searchIndex.search("беспроводная"), "поиск отработал некорректно");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadKeepsChangesCommittedWhileLoading() {
+        Item staleMouse = Item.builder()
+                .id(2L)
+                .name("Мышь")
+                .description("Игровая мышь")
+                .available(true)
+                .build();
+        when(itemRepository.findAllByAvailableTrue()).thenAnswer(invocation -> {
+            mouse.setDescription("Беспроводная мышь");
+            searchIndex.index(mouse);
+            return List.of(drill, staleMouse);
+        });
+        searchIndex.load();
+        assertEquals(Optional.of(List.of(2L)), searchIndex.search("беспроводная"), "поиск отработал некорректно");
+        assertEquals(Optional.of(List.of()), searchIndex.search("игровая"), "поиск отработал некорректно");
+        assertEquals(Optional.of(List.of(1L)), searchIndex.search("дрель"), "поиск отработал некорректно");
+    }
+
+    @Test
+    void shortQueriesFallBackToDatabase() {
+        assertTrue(searchIndex.search("мы").isEmpty(), "поиск отработал некорректно");
+    }
+}
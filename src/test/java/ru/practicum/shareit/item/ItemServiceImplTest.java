@@ -8,23 +8,30 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.booking.CommentEligibilityIndex;
+import ru.practicum.shareit.booking.OwnerSummaryCache;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.exceptions.WrongAuthorException;
+import ru.practicum.shareit.exceptions.WrongOwnerException;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingAndComments;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sync.ChangeLog;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,13 +43,23 @@ class ItemServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserService userService;
-    @Mock
     private CommentRepository commentRepository;
     @Mock
+    private CommentCache commentCache;
+    @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private BookingTimeline bookingTimeline;
+    @Mock
+    private CommentEligibilityIndex commentEligibility;
+    @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex searchIndex;
+    @Mock
+    private ChangeLog changeLog;
+    @Mock
+    private OwnerSummaryCache ownerSummary;
 
     private ItemDto itemDto;
     private User user;
@@ -85,32 +102,39 @@ class ItemServiceImplTest {
     void createItemValid() {
         Item actualItem = ItemMapper.toItem(itemDto, user, itemRequest);
 
-        when(userService.getUserById(user.getId())).thenReturn(user);
         when(itemRequestRepository.findById(itemDto.getRequestId())).thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(ItemMapper.toItem(itemDto, user, itemRequest))).thenReturn(actualItem);
 
-        Item itemReturn = itemService.createItem(itemDto, user.getId());
+        Item itemReturn = itemService.createItem(itemDto, user);
         assertEquals(user.getId(), itemReturn.getOwner().getId(), "метод отработал некорректно");
         assertEquals(itemRequest.getCreated(), itemReturn.getRequest().getCreated(), "метод отработал некорректно");
     }
 
     @Test
-    void createItemUserDataNotFoundException() {
-        Long userId = 222L;
-        User notValidUser = new User();
-        ItemDto itemDto1 = ItemDto.builder()
-                .id(100L)
+    void createItemsBatchLoadsRequestsOnce() {
+        ItemDto withoutRequest = ItemDto.builder()
                 .name("мышь")
                 .description("игровая мышь")
                 .available(true)
-                .requestId(1L)
                 .build();
-        ItemRequest itemRequest = new ItemRequest();
+        List<Item> items = List.of(ItemMapper.toItem(itemDto, user, itemRequest), ItemMapper.toItem(withoutRequest, user, null));
+
+        when(itemRequestRepository.findAllById(Set.of(itemRequest.getId()))).thenReturn(List.of(itemRequest));
+        when(itemRepository.saveAll(items)).thenReturn(items);
 
-        when(userService.getUserById(userId)).thenThrow(DataNotFoundException.class);
+        List<Item> savedItems = itemService.createItems(List.of(itemDto, withoutRequest), user);
+        assertEquals(2, savedItems.size(), "метод отработал некорректно");
+        assertEquals(itemRequest.getId(), savedItems.get(0).getRequest().getId(), "метод отработал некорректно");
+        verify(itemRequestRepository, never()).findById(anyLong());
+        verify(searchIndex, times(2)).index(any(Item.class));
+    }
+
+    @Test
+    void createItemsBatchRequestNotValidException() {
+        when(itemRequestRepository.findAllById(Set.of(itemDto.getRequestId()))).thenReturn(List.of());
 
-        assertThrows(DataNotFoundException.class, () -> itemService.createItem(itemDto1, userId));
-        verify(itemRepository, never()).save(ItemMapper.toItem(itemDto1, notValidUser, itemRequest));
+        assertThrows(DataNotFoundException.class, () -> itemService.createItems(List.of(itemDto), user));
+        verify(itemRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -120,10 +144,9 @@ class ItemServiceImplTest {
         ItemRequest itemRequest1 = new ItemRequest();
         itemRequest1.setId(1L);
 
-        when(userService.getUserById(user1.getId())).thenReturn(user1);
         when(itemRequestRepository.findById(itemRequest1.getId())).thenThrow(DataNotFoundException.class);
 
-        assertThrows(DataNotFoundException.class, () -> itemService.createItem(itemDto, user1.getId()));
+        assertThrows(DataNotFoundException.class, () -> itemService.createItem(itemDto, user1));
         verify(itemRepository, never()).save(ItemMapper.toItem(itemDto, user1, itemRequest1));
     }
 
@@ -132,9 +155,8 @@ class ItemServiceImplTest {
         Item item = ItemMapper.toItem(itemDto, user, itemRequest);
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(userService.getUserById(user.getId())).thenReturn(user);
 
-        Item updateItem = itemService.updateItem(itemDto, user.getId(), item.getId());
+        Item updateItem = itemService.updateItem(itemDto, user, item.getId());
         assertEquals(user.getEmail(), updateItem.getOwner().getEmail(), "метод отработал некорректно");
         verify(itemRepository, times(1)).save(ItemMapper.toItemWithId(itemDto, user, item.getId()));
     }
@@ -143,29 +165,34 @@ class ItemServiceImplTest {
     void updateItemItemNotValidException() {
         Item notValidItem = new Item();
         notValidItem.setId(1L);
-        Long userId = 1L;
         User user1 = new User();
+        user1.setId(1L);
 
         when(itemRepository.findById(notValidItem.getId())).thenThrow(DataNotFoundException.class);
 
-        assertThrows(DataNotFoundException.class, () -> itemService.updateItem(itemDto, userId, notValidItem.getId()));
+        assertThrows(DataNotFoundException.class, () -> itemService.updateItem(itemDto, user1, notValidItem.getId()));
         verify(itemRepository, never()).save(ItemMapper.toItemWithId(itemDto, user1, notValidItem.getId()));
     }
 
     @Test
     void updateItemNotValidException() {
         Item item = ItemMapper.toItem(itemDto, user, itemRequest);
+        User notOwner = User.builder()
+                .id(2L)
+                .email("new@yandex.ru")
+                .name("new")
+                .build();
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(userService.getUserById(user.getId())).thenThrow(DataNotFoundException.class);
 
-        assertThrows(DataNotFoundException.class, () -> itemService.updateItem(itemDto, user.getId(), item.getId()));
-        verify(itemRepository, never()).save(ItemMapper.toItemWithId(itemDto, user, item.getId()));
+        assertThrows(WrongOwnerException.class, () -> itemService.updateItem(itemDto, notOwner, item.getId()));
+        verify(itemRepository, never()).save(ItemMapper.toItemWithId(itemDto, notOwner, item.getId()));
     }
 
     @Test
     void getItemByIdValid() {
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentCache.get(item.getId())).thenReturn(CommentWindow.EMPTY);
 
         ItemWithBookingAndComments item1 = itemService.getItemById(item.getId(), user.getId());
         assertNotNull(item1);
@@ -180,6 +207,32 @@ class ItemServiceImplTest {
         assertThrows(DataNotFoundException.class, () -> itemService.getItemById(item.getId(), user.getId()));
     }
 
+    @Test
+    void getItemByIdOwnerReadsBookingsFromTimeline() {
+        BookingShort lastBooking = BookingShort.builder()
+                .id(1L)
+                .bookerId(2L)
+                .build();
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentCache.get(item.getId())).thenReturn(CommentWindow.EMPTY);
+        when(bookingTimeline.findLast(eq(item.getId()), any(LocalDateTime.class))).thenReturn(lastBooking);
+
+        ItemWithBookingAndComments item1 = itemService.getItemById(item.getId(), user.getId());
+        assertEquals(lastBooking, item1.getLastBooking(), "метод отработал некорректно");
+        assertNull(item1.getNextBooking(), "метод отработал некорректно");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemByIdNotOwnerSkipsBookings() {
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentCache.get(item.getId())).thenReturn(CommentWindow.EMPTY);
+
+        ItemWithBookingAndComments item1 = itemService.getItemById(item.getId(), 2L);
+        assertNull(item1.getLastBooking(), "метод отработал некорректно");
+        verifyNoInteractions(bookingTimeline, bookingRepository);
+    }
+
     @Test
     void getAllItemsByUserValid() {
         List<ItemWithBookingAndComments> list = new ArrayList<>();
@@ -201,11 +254,10 @@ class ItemServiceImplTest {
                 .comments(new ArrayList<>())
                 .build();
         list.add(item1);
-        List<Item> itemList = new ArrayList<>();
-        itemList.add(item);
+        List<ItemDto> itemList = new ArrayList<>();
+        itemList.add(ItemMapper.toDto(item));
         Pageable pageable = PageRequest.of(15 / 10, 10);
 
-        when(userService.getUserById(user.getId())).thenReturn(user);
         when(itemRepository.findAllByOwnerId(user.getId(), pageable)).thenReturn(itemList);
 
         List<ItemWithBookingAndComments> item2 = (List<ItemWithBookingAndComments>)
@@ -216,15 +268,26 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void getAllItemsByUserNotValidException() {
-        Integer from = 5;
-        Integer size = 10;
-        Pageable pageable = PageRequest.of(from / size, size);
-
-        when(userService.getUserById(user.getId())).thenThrow(DataNotFoundException.class);
-
-        assertThrows(DataNotFoundException.class, () -> itemService.getAllItemsByUser(user.getId(), from, size));
-        verify(itemRepository, never()).findAllByOwnerId(user.getId(), pageable);
+    void getAllItemsByUserBatchLoadsBookingsAndComments() {
+        Pageable pageable = PageRequest.of(0, 10);
+        CommentDto comment = CommentMapper.toDto(commentView(1L, "отличная вещь"));
+
+        when(itemRepository.findAllByOwnerId(user.getId(), pageable)).thenReturn(List.of(ItemMapper.toDto(item)));
+        when(bookingRepository.findLastAndNextByItemIdIn(eq(List.of(item.getId())), any(LocalDateTime.class),
+                eq(Status.REJECTED.name())))
+                .thenReturn(List.of(itemBookingView(1L, 2L, Status.APPROVED, true)));
+        when(commentCache.getAll(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), new CommentWindow(List.of(comment), 3)));
+
+        List<ItemWithBookingAndComments> items = (List<ItemWithBookingAndComments>)
+                itemService.getAllItemsByUser(user.getId(), 0, 10);
+        assertEquals(1, items.size(), "метод отработал некорректно");
+        assertEquals(1L, items.get(0).getLastBooking().getId(), "метод отработал некорректно");
+        assertEquals(2L, items.get(0).getLastBooking().getBookerId(), "метод отработал некорректно");
+        assertNull(items.get(0).getNextBooking(), "метод отработал некорректно");
+        assertEquals(1, items.get(0).getComments().size(), "метод отработал некорректно");
+        assertEquals(user.getName(), items.get(0).getComments().get(0).getAuthorName(), "метод отработал некорректно");
+        assertEquals(3L, items.get(0).getCommentsCount(), "метод отработал некорректно");
     }
 
     @Test
@@ -232,16 +295,35 @@ class ItemServiceImplTest {
         String text = "удобный";
         Integer from = 1;
         Integer size = 10;
-        List<Item> itemList = new ArrayList<>();
-        itemList.add(item);
+        List<ItemDto> itemList = new ArrayList<>();
+        itemList.add(ItemMapper.toDto(item));
         Pageable pageable = PageRequest.of(from / size, size);
 
         when(itemRepository.searchWithPagination(text, pageable)).thenReturn(itemList);
 
-        List<Item> actualItemList = (List<Item>) itemService.getAllItemsByText(text, from, size);
+        List<ItemDto> actualItemList = (List<ItemDto>) itemService.getAllItemsByText(text, from, size);
         assertFalse(actualItemList.isEmpty());
         assertEquals(1, actualItemList.size(), "метод отработал некорректно");
-        assertEquals(item, actualItemList.get(0), "метод отработал некорректно");
+        assertEquals(itemList.get(0), actualItemList.get(0), "метод отработал некорректно");
+    }
+
+    @Test
+    void getAllItemsByTextUsesSearchIndex() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("мышь")
+                .description("офисная мышь")
+                .available(true)
+                .owner(user)
+                .build();
+
+        when(searchIndex.search("мышь")).thenReturn(Optional.of(List.of(1L, 2L)));
+        when(itemRepository.findAllDtoByIdIn(List.of(2L))).thenReturn(List.of(ItemMapper.toDto(otherItem)));
+
+        List<ItemDto> actualItemList = (List<ItemDto>) itemService.getAllItemsByText("мышь", 1, 1);
+        assertEquals(1, actualItemList.size(), "метод отработал некорректно");
+        assertEquals(otherItem.getId(), actualItemList.get(0).getId(), "метод отработал некорректно");
+        verify(itemRepository, never()).searchWithPagination(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -249,46 +331,31 @@ class ItemServiceImplTest {
         CommentDtoRequest commentDtoInput = CommentDtoRequest.builder()
                 .text("отличная вещь")
                 .build();
-        User user1 = User.builder()
-                .id(2L)
-                .email("new@yandex.ru")
-                .name("new")
-                .build();
-        LocalDateTime dateTime = LocalDateTime.now();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .item(item)
-                .booker(user1)
-                .start(dateTime)
-                .end(dateTime.plusDays(1))
-                .status(Status.WAITING)
-                .build();
         Comment comment = CommentMapper.toComment(commentDtoInput, user, item);
 
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(userService.getUserById(user.getId())).thenReturn(user);
-        when(bookingRepository.findFirstByBookerIdAndItemIdAndEndIsBeforeOrderByEndDesc(any(Long.class),
-                any(Long.class), any(LocalDateTime.class))).thenReturn(booking);
+        when(itemRepository.getReferenceById(item.getId())).thenReturn(item);
+        when(commentEligibility.canComment(user.getId(), item.getId())).thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenAnswer(invocationOnMock -> {
             comment.setId(1L);
             return comment;
         });
 
-        Comment newComment = itemService.createComment(commentDtoInput, user.getId(), item.getId());
+        Comment newComment = itemService.createComment(commentDtoInput, user, item.getId());
         assertFalse(newComment == null);
         assertEquals(commentDtoInput.getText(), newComment.getText(), "метод отработал некорректно");
+        verify(commentCache).add(item.getId(), CommentMapper.toDto(comment));
     }
 
     @Test
-    void createCommentUserIdNotValidException() {
-        Long itemId = 1L;
+    void createCommentWithoutBookingException() {
         CommentDtoRequest commentDtoInput = CommentDtoRequest.builder()
                 .text("отличная вещь")
                 .build();
 
-        when(userService.getUserById(user.getId())).thenThrow(DataNotFoundException.class);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
 
-        assertThrows(DataNotFoundException.class, () -> itemService.createComment(commentDtoInput, user.getId(), itemId));
+        assertThrows(WrongAuthorException.class, () -> itemService.createComment(commentDtoInput, user, item.getId()));
+        verify(commentRepository, never()).save(any(Comment.class));
     }
 
     @Test
@@ -297,9 +364,97 @@ class ItemServiceImplTest {
                 .text("отличная вещь")
                 .build();
 
-        when(userService.getUserById(user.getId())).thenReturn(user);
-        when(itemRepository.findById(item.getId())).thenThrow(DataNotFoundException.class);
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+
+        assertThrows(DataNotFoundException.class, () -> itemService.createComment(commentDtoInput, user, item.getId()));
+    }
+
+    @Test
+    void getCommentsFirstPage() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(commentRepository.findPageByItemId(item.getId(), pageable))
+                .thenReturn(List.of(commentView(2L, "новый"), commentView(1L, "старый")));
+
+        List<CommentDto> comments = itemService.getComments(item.getId(), null, 2);
+        assertEquals(2, comments.size(), "метод отработал некорректно");
+        assertEquals(2L, comments.get(0).getId(), "метод отработал некорректно");
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void getCommentsAfterCursor() {
+        Pageable pageable = PageRequest.of(0, 2);
+        CommentCursor after = new CommentCursor(LocalDateTime.now(), 2L);
+        when(commentRepository.findPageByItemIdBefore(item.getId(), after.getCreated(), after.getId(), pageable))
+                .thenReturn(List.of(commentView(1L, "старый")));
+
+        List<CommentDto> comments = itemService.getComments(item.getId(), after, 2);
+        assertEquals(1L, comments.get(0).getId(), "метод отработал некорректно");
+    }
+
+    @Test
+    void getCommentsItemDataNotFoundException() {
+        when(commentRepository.findPageByItemId(item.getId(), PageRequest.of(0, 2))).thenReturn(List.of());
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+
+        assertThrows(DataNotFoundException.class, () -> itemService.getComments(item.getId(), null, 2));
+    }
+
+    private ItemBookingView itemBookingView(Long id, Long bookerId, Status status, Boolean past) {
+        return new ItemBookingView() {
+            @Override
+            public Long getItemId() {
+                return item.getId();
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public String getStatus() {
+                return status.name();
+            }
+
+            @Override
+            public Boolean getPast() {
+                return past;
+            }
+        };
+    }
 
-        assertThrows(DataNotFoundException.class, () -> itemService.createComment(commentDtoInput, user.getId(), item.getId()));
+    private CommentView commentView(Long id, String text) {
+        return new CommentView() {
+            @Override
+            public Long getItemId() {
+                return item.getId();
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+
+            @Override
+            public String getAuthorName() {
+                return user.getName();
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return LocalDateTime.now();
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -73,28 +73,28 @@ class ItemServiceTest {
 
     @Test
     void createItem() {
-        Item item1 = itemService.createItem(itemDto, user.getId());
+        Item item1 = itemService.createItem(itemDto, user);
         assertEquals(user, item1.getOwner());
-        assertEquals(requester, item1.getRequest().getRequester());
+        assertEquals(requester.getId(), item1.getRequest().getRequester().getId());
     }
 
     @Test
     void updateItem() {
-        Item item1 = itemService.createItem(itemDto, user.getId());
+        Item item1 = itemService.createItem(itemDto, user);
         ItemDto itemDto1 = ItemDto.builder()
                 .name("дрель отремонтированная")
                 .description("супер дрель")
                 .available(true)
                 .requestId(itemRequest.getId())
                 .build();
-        Item updateItem = itemService.updateItem(itemDto1, user.getId(), item1.getId());
+        Item updateItem = itemService.updateItem(itemDto1, user, item1.getId());
         assertEquals(itemDto1.getName(), updateItem.getName());
         assertEquals(item1.getId(), updateItem.getId());
     }
 
     @Test
     void getItemById() {
-        Item item1 = itemService.createItem(itemDto, user.getId());
+        Item item1 = itemService.createItem(itemDto, user);
         ItemWithBookingAndComments newItem = itemService.getItemById(item1.getId(), user.getId());
         assertTrue(newItem.getComments().isEmpty());
         assertTrue(newItem.getLastBooking() == null);
@@ -103,7 +103,7 @@ class ItemServiceTest {
 
     @Test
     void getAllItemsByUser() {
-        itemService.createItem(itemDto, user.getId());
+        itemService.createItem(itemDto, user);
         List<ItemWithBookingAndComments> list = (List<ItemWithBookingAndComments>)
                 itemService.getAllItemsByUser(user.getId(), 0, 5);
         assertEquals(1, list.size());
@@ -111,14 +111,14 @@ class ItemServiceTest {
 
     @Test
     void getAllItemsByText() {
-        itemService.createItem(itemDto, user.getId());
-        List<Item> items = (List<Item>) itemService.getAllItemsByText("игровая", 0, 5);
+        itemService.createItem(itemDto, user);
+        List<ItemDto> items = (List<ItemDto>) itemService.getAllItemsByText("игровая", 0, 5);
         assertEquals(itemDto.getName(), items.get(0).getName());
     }
 
     @Test
     void createComment() {
-        Item item1 = itemService.createItem(itemDto, user.getId());
+        Item item1 = itemService.createItem(itemDto, user);
         Booking booking = Booking.builder()
                 .item(item1)
                 .booker(requester)
@@ -130,7 +130,7 @@ class ItemServiceTest {
         CommentDtoRequest commentDtoInput = CommentDtoRequest.builder()
                 .text("text")
                 .build();
-        Comment comment = itemService.createComment(commentDtoInput, item1.getId(), requester.getId());
+        Comment comment = itemService.createComment(commentDtoInput, requester, item1.getId());
         assertEquals("text", comment.getText());
     }
 }
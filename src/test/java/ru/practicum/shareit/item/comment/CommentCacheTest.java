@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentCacheTest {
+    @Mock
+    private CommentRepository commentRepository;
+
+    private CommentCache cache;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CommentCache(commentRepository, 2, 1);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void getAllLoadsMissingWindowsInOneQuery() {
+        when(commentRepository.findNewestByItemIdIn(List.of(1L, 2L), 2))
+                .thenReturn(List.of(view(1L, 5L, 7L), view(1L, 4L, 7L)));
+
+        Map<Long, CommentWindow> windows = cache.getAll(List.of(1L, 2L));
+        assertEquals(2, windows.get(1L).getComments().size(), "некорректная работа.");
+        assertEquals(7L, windows.get(1L).getTotal(), "некорректная работа.");
+        assertEquals(5L, windows.get(1L).getComments().get(0).getId(), "некорректная работа.");
+        assertTrue(windows.get(2L).getComments().isEmpty(), "некорректная работа.");
+        assertEquals(0L, windows.get(2L).getTotal(), "некорректная работа.");
+    }
+
+    @Test
+    void getServesFromCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        when(commentRepository.findNewestByItemIdIn(List.of(1L), 2)).thenReturn(List.of(view(1L, 5L, 1L)));
+
+        cache.get(1L);
+        assertEquals(1L, cache.get(1L).getTotal(), "некорректная работа.");
+        verify(commentRepository, times(1)).findNewestByItemIdIn(List.of(1L), 2);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "comments").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void addUpdatesCachedWindowInPlace() {
+        when(commentRepository.findNewestByItemIdIn(List.of(1L), 2))
+                .thenReturn(List.of(view(1L, 5L, 3L), view(1L, 4L, 3L)));
+        cache.get(1L);
+
+        cache.add(1L, CommentDto.builder().id(9L).text("новый").created(now).build());
+        CommentWindow window = cache.get(1L);
+        assertEquals(List.of(9L, 5L), List.of(window.getComments().get(0).getId(),
+                window.getComments().get(1).getId()), "окно должно содержать только новейшие комментарии.");
+        assertEquals(4L, window.getTotal(), "некорректная работа.");
+        verify(commentRepository, times(1)).findNewestByItemIdIn(List.of(1L), 2);
+    }
+
+    @Test
+    void addSkipsCommentAlreadyLoadedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.add(1L, CommentDto.builder().id(9L).text("новый").created(now).build());
+            when(commentRepository.findNewestByItemIdIn(List.of(1L), 2))
+                    .thenReturn(List.of(view(1L, 9L, 3L), view(1L, 5L, 3L)));
+            cache.get(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        CommentWindow window = cache.get(1L);
+        assertEquals(List.of(9L, 5L), List.of(window.getComments().get(0).getId(),
+                window.getComments().get(1).getId()), "комментарий не должен дублироваться в окне.");
+        assertEquals(3L, window.getTotal(), "некорректная работа.");
+    }
+
+    @Test
+    void addForUncachedItemDoesNotLoad() {
+        cache.add(1L, CommentDto.builder().id(9L).created(now).build());
+
+        assertEquals(0, cache.size(), "некорректная работа.");
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsed() {
+        when(commentRepository.findNewestByItemIdIn(anyList(), eq(2))).thenReturn(List.of());
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+        assertEquals(1, cache.size(), "некорректная работа.");
+        verify(commentRepository, times(2)).findNewestByItemIdIn(List.of(1L), 2);
+    }
+
+    private CommentWindowView view(Long itemId, Long id, Long total) {
+        return new CommentWindowView() {
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return "текст";
+            }
+
+            @Override
+            public String getAuthorName() {
+                return "Ivan";
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return now.minusMinutes(id);
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.comment;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.WrongCursorException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        CommentCursor cursor = new CommentCursor(LocalDateTime.of(2024, 1, 10, 12, 30, 15, 123000), 42L);
+        CommentCursor decoded = CommentCursor.decode(cursor.encode());
+        assertEquals(cursor.getCreated(), decoded.getCreated(), "курсор разобран некорректно");
+        assertEquals(cursor.getId(), decoded.getId(), "курсор разобран некорректно");
+    }
+
+    @Test
+    void decodeEmptyCursor() {
+        assertNull(CommentCursor.decode(""), "курсор разобран некорректно");
+        assertNull(CommentCursor.decode(null), "курсор разобран некорректно");
+    }
+
+    @Test
+    void decodeNotValidCursor() {
+        assertThrows(WrongCursorException.class, () -> CommentCursor.decode("не-курсор"));
+        assertThrows(WrongCursorException.class, () -> CommentCursor.decode("MjAyNA"));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
@@ -73,9 +74,51 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void findAllByItem() {
-        List<Comment> comments = commentRepository.findAllByItem(item);
+    void findAllViewByIdIn() {
+        List<CommentView> comments = commentRepository.findAllViewByIdIn(List.of(comment.getId()));
         assertEquals(1, comments.size());
+        assertEquals(item.getId(), comments.get(0).getItemId());
+        assertEquals(user.getName(), comments.get(0).getAuthorName());
+    }
+
+    @Test
+    void findPageByItemIdUsesKeysetOnCreatedAndId() {
+        Comment older = commentRepository.save(Comment.builder()
+                .item(item)
+                .text("old")
+                .author(user)
+                .created(comment.getCreated().minusDays(1))
+                .build());
+        Comment sameTime = commentRepository.save(Comment.builder()
+                .item(item)
+                .text("same")
+                .author(user)
+                .created(comment.getCreated())
+                .build());
+
+        List<CommentView> first = commentRepository.findPageByItemId(item.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(sameTime.getId(), comment.getId()), List.of(first.get(0).getId(), first.get(1).getId()));
+        List<CommentView> second = commentRepository.findPageByItemIdBefore(item.getId(), first.get(1).getCreated(),
+                first.get(1).getId(), PageRequest.of(0, 2));
+        assertEquals(1, second.size());
+        assertEquals(older.getId(), second.get(0).getId());
+    }
+
+    @Test
+    void findNewestByItemIdInReturnsWindowAndTotal() {
+        Comment newer = commentRepository.save(Comment.builder()
+                .item(item)
+                .text("new")
+                .author(requester)
+                .created(comment.getCreated().plusHours(1))
+                .build());
+
+        List<CommentWindowView> window = commentRepository.findNewestByItemIdIn(List.of(item.getId()), 1);
+        assertEquals(1, window.size());
+        assertEquals(newer.getId(), window.get(0).getId());
+        assertEquals(requester.getName(), window.get(0).getAuthorName());
+        assertEquals(newer.getCreated().getSecond(), window.get(0).getCreated().getSecond());
+        assertEquals(2L, window.get(0).getTotal());
     }
 
     @AfterEach
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+    private ConcurrencyLimiter readLimiter;
+    private ConcurrencyLimiter writeLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        readLimiter = new ConcurrencyLimiter(1, 1, 1, 10_000);
+        writeLimiter = new ConcurrencyLimiter(1, 1, 1, 10_000);
+        filter = new ConcurrencyLimitFilter(new ObjectMapper(), readLimiter, writeLimiter);
+    }
+
+    @Test
+    @SneakyThrows
+    void requestOverLimitIsShed() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        MockHttpServletResponse outer = perform("GET", "/items", (req, res) ->
+                nested[0] = perform("GET", "/items/1", (r, s) -> { }));
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(nested[0].getContentAsString().contains("error"));
+        assertEquals(0, readLimiter.getInFlight());
+        assertEquals(1.0, registry.get("concurrency.rejected").tag("type", "read").functionCounter().count());
+        assertEquals(1.0, registry.get("concurrency.limit").tag("type", "write").gauge().value());
+    }
+
+    @Test
+    @SneakyThrows
+    void readAndWriteHaveSeparateLimits() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        perform("GET", "/items", (req, res) -> nested[0] = perform("POST", "/bookings", (r, s) -> { }));
+        assertEquals(200, nested[0].getStatus());
+        assertEquals(0, writeLimiter.getRejected());
+    }
+
+    @Test
+    @SneakyThrows
+    void longLivedStreamsAreNotLimited() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+
+        perform("GET", "/items", (req, res) -> {
+            nested[0] = perform("GET", "/bookings/events", (r, s) -> { });
+            nested[1] = perform("GET", "/bookings/owner/export", (r, s) -> { });
+        });
+        assertEquals(200, nested[0].getStatus());
+        assertEquals(200, nested[1].getStatus());
+    }
+
+    @Test
+    @SneakyThrows
+    void importDoesNotHoldWriteSlot() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        perform("POST", "/items/import", (req, res) -> nested[0] = perform("POST", "/bookings", (r, s) -> { }));
+        assertEquals(200, nested[0].getStatus());
+        assertEquals(0, writeLimiter.getRejected());
+    }
+
+    @Test
+    @SneakyThrows
+    void exceptionReleasesSlot() {
+        assertThrows(IllegalStateException.class, () -> perform("POST", "/items", (req, res) -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(0, writeLimiter.getInFlight());
+        assertEquals(200, perform("POST", "/items", (req, res) -> { }).getStatus());
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse perform(String method, String uri, FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    private static final long FAST = 1_000_000;
+    private static final long SLOW = 500_000_000;
+
+    @Test
+    void tryAcquireRejectsAboveLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 100);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void fastResponsesUnderLoadRaiseLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 3, 100);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertEquals(3, limiter.getLimit(), "лимит не должен превышать максимум");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void idleLimiterDoesNotGrow() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100, 100);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void slowOrFailedResponsesShrinkLimitDownToMinimum() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 8, 100, 100);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(9, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(8, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(8, limiter.getLimit());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    private AtomicLong clock;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        filter = new RateLimitFilter(new ObjectMapper(), 1, 2, 1, 1, 1, 1, clock::get);
+    }
+
+    @Test
+    @SneakyThrows
+    void searchOverBudgetReturnsTooManyRequests() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+
+        assertEquals(200, perform("GET", "/items/search", "1").getStatus());
+        assertEquals(200, perform("GET", "/requests/all", "1").getStatus());
+        MockHttpServletResponse response = perform("GET", "/items/search", "1");
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("error"));
+        assertEquals(1.0, registry.get("ratelimit.throttled").tag("route", "search").functionCounter().count());
+    }
+
+    @Test
+    @SneakyThrows
+    void routesHaveSeparateBudgets() {
+        assertEquals(200, perform("POST", "/bookings", "1").getStatus());
+        assertEquals(429, perform("PATCH", "/bookings/5", "1").getStatus());
+        assertEquals(200, perform("GET", "/sync", "1").getStatus());
+        assertEquals(200, perform("GET", "/items/search", "1").getStatus());
+    }
+
+    @Test
+    @SneakyThrows
+    void unlimitedRoutesPassThrough() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("GET", "/items", "1").getStatus());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void anonymousRequestsShareBudgetByRemoteAddress() {
+        assertEquals(200, perform("GET", "/items/search", null).getStatus());
+        assertEquals(200, perform("GET", "/items/search", "p").getStatus());
+        assertEquals(429, perform("GET", "/items/search", null).getStatus());
+        assertEquals(200, perform("GET", "/items/search", "1").getStatus());
+    }
+
+    @Test
+    @SneakyThrows
+    void evictIdleForgetsRefilledUsers() {
+        perform("POST", "/bookings", "1");
+        clock.addAndGet(1_000_000_000L);
+        filter.evictIdle();
+
+        assertEquals(200, perform("POST", "/bookings", "1").getStatus());
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse perform(String method, String path, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private AtomicLong clock;
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000L);
+        limiter = new RateLimiter(2, 3, clock::get);
+    }
+
+    @Test
+    void tryAcquireAllowsBurstThenThrottles() {
+        assertEquals(0, limiter.tryAcquire("1"));
+        assertEquals(0, limiter.tryAcquire("1"));
+        assertEquals(0, limiter.tryAcquire("1"));
+        assertEquals(500_000_000L, limiter.tryAcquire("1"));
+        assertEquals(0, limiter.tryAcquire("2"), "лимиты пользователей не должны пересекаться");
+    }
+
+    @Test
+    void tryAcquireRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("1");
+        }
+        clock.addAndGet(500_000_000L);
+
+        assertEquals(0, limiter.tryAcquire("1"));
+        assertTrue(limiter.tryAcquire("1") > 0);
+    }
+
+    @Test
+    void evictIdleRemovesOnlyRefilledBuckets() {
+        limiter.tryAcquire("1");
+        limiter.tryAcquire("2");
+        limiter.tryAcquire("2");
+        clock.addAndGet(500_000_000L);
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+}
@@ -12,10 +12,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -37,6 +39,9 @@ class ItemRequestControllerTest {
     @MockBean
     private ItemRequestService service;
 
+    @MockBean
+    private UserCache userCache;
+
     private static final String HEADER = "X-Sharer-User-Id";
 
     private User user;
@@ -71,12 +76,14 @@ class ItemRequestControllerTest {
                 .created(LocalDateTime.now())
                 .build();
         response = ItemRequestMapper.toResponse(request, new ArrayList<>());
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userCache.get(anyLong())).thenReturn(Optional.of(requester));
     }
 
     @SneakyThrows
     @Test
     void createRequestValid() {
-        when(service.createRequest(anyLong(), any(ItemRequestDto.class), any(LocalDateTime.class)))
+        when(service.createRequest(any(User.class), any(ItemRequestDto.class), any(LocalDateTime.class)))
                 .thenReturn(request);
 
         mockMvc.perform(post("/requests", requester.getId())
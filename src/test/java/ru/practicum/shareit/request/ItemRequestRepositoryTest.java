@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.User;
 
@@ -62,18 +63,19 @@ class ItemRequestRepositoryTest {
 
 
     @Test
-    void findAllByRequesterOrderByCreatedDesc() {
-        List<ItemRequest> list = itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user);
+    void findAllByRequesterIdOrderByCreatedDesc() {
+        List<ItemRequestDtoResponse> list = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user.getId());
         assertEquals(3, list.size(), "некорректная работа.");
-        assertEquals(itemRequest2, list.get(2), "некорректная работа.");
-        assertEquals(itemRequest, list.get(0), "некорректная работа.");
-        assertEquals(itemRequest1, list.get(1), "некорректная работа.");
+        assertEquals(itemRequest2.getId(), list.get(2).getId(), "некорректная работа.");
+        assertEquals(itemRequest.getId(), list.get(0).getId(), "некорректная работа.");
+        assertEquals(itemRequest1.getId(), list.get(1).getId(), "некорректная работа.");
+        assertTrue(list.get(0).getItems().isEmpty(), "некорректная работа.");
     }
 
     @Test
-    void findAllByRequesterNotOrderByCreatedDesc() {
-        List<ItemRequest> list = itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(user1, PageRequest.of(0, 2));
-        List<ItemRequest> list1 = itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(user1, PageRequest.of(0, 5));
+    void findAllByRequesterIdNotOrderByCreatedDesc() {
+        List<ItemRequestDtoResponse> list = itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(user1.getId(), PageRequest.of(0, 2));
+        List<ItemRequestDtoResponse> list1 = itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(user1.getId(), PageRequest.of(0, 5));
         assertEquals(2, list.size(), "некорректная работа.");
         assertEquals(3, list1.size(), "некорректная работа.");
     }
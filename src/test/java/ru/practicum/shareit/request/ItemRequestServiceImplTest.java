@@ -9,11 +9,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +22,8 @@ import java.util.Optional;
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,8 +33,6 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private ItemRequestRepository itemRequestRepository;
 
     private final LocalDateTime now = LocalDateTime.now();
@@ -44,7 +44,7 @@ class ItemRequestServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository);
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository);
         userOwner = User.builder()
                 .id(1L)
                 .email("new@yandex.ru")
@@ -72,7 +72,6 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequestValid() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(userOwner));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
         ItemRequestDtoResponse itemRequestResponse = itemRequestService.getItemRequest(itemRequest.getId(), userOwner.getId());
         assertTrue(itemRequestResponse != null);
@@ -81,24 +80,16 @@ class ItemRequestServiceImplTest {
         assertEquals(itemRequest.getDescription(), itemRequestResponse.getDescription(), "некорректно отработал метод");
     }
 
-    @Test
-    void getItemRequestUseridNotValidException() {
-        when(userRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> itemRequestService.getItemRequest(itemRequest.getId(), userOwner.getId()));
-    }
-
     @Test
     void getItemRequestRequestIdNotValidException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(userOwner));
         when(itemRequestRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
         assertThrows(DataNotFoundException.class, () -> itemRequestService.getItemRequest(itemRequest.getId(), userOwner.getId()));
     }
 
     @Test
     void getAllRequestsValid() {
-        List<ItemRequest> list = List.of(itemRequest);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(userOwner));
-        when(itemRequestRepository.findAllByRequesterOrderByCreatedDesc(any(User.class))).thenReturn(list);
+        List<ItemRequestDtoResponse> list = List.of(toResponse(itemRequest));
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userOwner.getId())).thenReturn(list);
         List<ItemRequestDtoResponse> itemRequestList = itemRequestService.getAllRequests(userOwner.getId());
         assertFalse(itemRequestList.isEmpty());
         assertEquals(list.get(0).getId(), itemRequestList.get(0).getId(), "Некорректно отработал метод");
@@ -106,19 +97,30 @@ class ItemRequestServiceImplTest {
         assertEquals(list.get(0).getCreated(), itemRequestList.get(0).getCreated(), "Некорректно отработал метод");
     }
 
-
     @Test
-    void getAllRequestsUserIdNotValidException() {
-        when(userRepository.findById(userOwner.getId()))
-                .thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> itemRequestService.getAllRequests(userOwner.getId()));
+    void getAllRequestsAttachesItemsInOneQuery() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .id(2L)
+                .description("other description")
+                .requester(userOwner)
+                .created(LocalDateTime.now())
+                .build();
+        item.setRequest(itemRequest);
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userOwner.getId()))
+                .thenReturn(List.of(toResponse(itemRequest), toResponse(otherRequest)));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId(), otherRequest.getId())))
+                .thenReturn(List.of(ItemMapper.toDto(item)));
+        List<ItemRequestDtoResponse> itemRequestList = itemRequestService.getAllRequests(userOwner.getId());
+        assertEquals(2, itemRequestList.size(), "Некорректно отработал метод");
+        assertEquals(1, itemRequestList.get(0).getItems().size(), "Некорректно отработал метод");
+        assertEquals(item.getId(), itemRequestList.get(0).getItems().get(0).getId(), "Некорректно отработал метод");
+        assertTrue(itemRequestList.get(1).getItems().isEmpty(), "Некорректно отработал метод");
     }
 
     @Test
     void getRequestsFromOtherUsersValid() {
-        List<ItemRequest> list = List.of(itemRequest);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(userOwner));
-        when(itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(any(User.class), any(Pageable.class)))
+        List<ItemRequestDtoResponse> list = List.of(toResponse(itemRequest));
+        when(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(list);
         List<ItemRequestDtoResponse> itemRequestResponseList = itemRequestService.getRequestsFromOtherUsers(userOwner.getId(), 1, 5);
         assertFalse(itemRequestResponseList.isEmpty());
@@ -127,31 +129,19 @@ class ItemRequestServiceImplTest {
         assertEquals(list.get(0).getCreated(), itemRequestResponseList.get(0).getCreated(), "Некорректно отработал метод");
     }
 
-    @Test
-    void getRequestsFromOtherUsersNotValidException() {
-        when(userRepository.findById(anyLong())).thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> itemRequestService.getRequestsFromOtherUsers(userOwner.getId(), 1, 5));
-    }
-
     @Test
     void createRequestValid() {
         ItemRequestDto itemRequestDto = new ItemRequestDto("new request", 2L);
         ItemRequest itemRequest = new ItemRequest(1L, "description", userBooker, now);
-        when(userRepository.findById(userBooker.getId()))
-                .thenReturn(Optional.of(userBooker));
         when(itemRequestRepository.save(any(ItemRequest.class)))
                 .thenReturn(itemRequest);
-        ItemRequest itemRequest1 = itemRequestService.createRequest(userBooker.getId(), itemRequestDto, now);
+        ItemRequest itemRequest1 = itemRequestService.createRequest(userBooker, itemRequestDto, now);
         assertEquals(userBooker.getId(), itemRequest1.getRequester().getId(), "Неверно отработал метод");
         assertEquals("description", itemRequest1.getDescription(), "Неверно отработал метод");
         assertEquals(now, itemRequest1.getCreated());
     }
 
-    @Test
-    void createRequestDataNotFoundException() {
-        ItemRequestDto itemRequestDto = new ItemRequestDto("new request", 2L);
-        when(userRepository.findById(userBooker.getId()))
-                .thenThrow(DataNotFoundException.class);
-        assertThrows(DataNotFoundException.class, () -> itemRequestService.createRequest(userBooker.getId(), itemRequestDto, now));
+    private ItemRequestDtoResponse toResponse(ItemRequest request) {
+        return new ItemRequestDtoResponse(request.getId(), request.getDescription(), request.getCreated());
     }
-}
\ No newline at end of file
+}
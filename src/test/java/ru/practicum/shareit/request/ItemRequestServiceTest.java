@@ -70,30 +70,30 @@ class ItemRequestServiceTest {
 
     @Test
     void addRequest() {
-        ItemRequest itemRequest1 = itemRequestService.createRequest(requester.getId(), itemRequestDto, now);
+        ItemRequest itemRequest1 = itemRequestService.createRequest(requester, itemRequestDto, now);
         assertEquals("description", itemRequest1.getDescription());
     }
 
     @Test
     void getAllMyRequests() {
-        itemRequestService.createRequest(requester.getId(), itemRequestDto, now);
-        itemRequestService.createRequest(requester.getId(), itemRequestDto1, now);
+        itemRequestService.createRequest(requester, itemRequestDto, now);
+        itemRequestService.createRequest(requester, itemRequestDto1, now);
         List<ItemRequestDtoResponse> responseList = itemRequestService.getAllRequests(requester.getId());
         assertEquals(2, responseList.size());
     }
 
     @Test
     void getListOfOtherUsersRequests() {
-        itemRequestService.createRequest(requester.getId(), itemRequestDto, now);
-        itemRequestService.createRequest(requester.getId(), itemRequestDto1, now);
+        itemRequestService.createRequest(requester, itemRequestDto, now);
+        itemRequestService.createRequest(requester, itemRequestDto1, now);
         List<ItemRequestDtoResponse> responseList = itemRequestService.getRequestsFromOtherUsers(userOwner.getId(), 0, 1);
         assertEquals(1, responseList.size());
     }
 
     @Test
     void getItemRequest() {
-        ItemRequest itemRequest1 = itemRequestService.createRequest(requester.getId(), itemRequestDto, now);
-        ItemRequest itemRequest2 = itemRequestService.createRequest(requester.getId(), itemRequestDto1, now);
+        ItemRequest itemRequest1 = itemRequestService.createRequest(requester, itemRequestDto, now);
+        ItemRequest itemRequest2 = itemRequestService.createRequest(requester, itemRequestDto1, now);
         ItemRequestDtoResponse itemRequestResponse = itemRequestService.getItemRequest(itemRequest1.getId(), requester.getId());
         assertEquals("description", itemRequestResponse.getDescription());
     }
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.sync;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.sync.dto.SyncDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = SyncController.class)
+class SyncControllerTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private SyncService syncService;
+    @MockBean
+    private UserCache userCache;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .id(1L)
+                .email("new@yandex.ru")
+                .name("new")
+                .build();
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userCache.get(anyLong())).thenReturn(Optional.of(user));
+    }
+
+    @SneakyThrows
+    @Test
+    void getChangesValid() {
+        SyncDto syncDto = SyncDto.builder()
+                .cursor(7L)
+                .hasMore(false)
+                .items(List.of(ItemDto.builder().id(3L).name("дрель").build()))
+                .bookings(List.of())
+                .comments(Map.of())
+                .build();
+        when(syncService.getChanges(1L, 5L, 100)).thenReturn(syncDto);
+
+        mockMvc.perform(get("/sync")
+                        .header(HEADER, "1")
+                        .param("since", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cursor").value(7))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.items[0].name").value("дрель"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getChangesNotValidException() {
+        mockMvc.perform(get("/sync")
+                        .header(HEADER, "1")
+                        .param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/sync")
+                        .header(HEADER, "1")
+                        .param("size", "501"))
+                .andExpect(status().isBadRequest());
+        verify(syncService, never()).getChanges(anyLong(), anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.sync;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDtoRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.sync.dto.SyncDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SyncServiceTest {
+    @Autowired
+    private SyncService syncService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ChangeLog changeLog;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder()
+                .email("old@yandex.ru")
+                .name("old")
+                .build();
+        userRepository.save(owner);
+        booker = User.builder()
+                .email("new@yandex.ru")
+                .name("new")
+                .build();
+        userRepository.save(booker);
+        item = itemService.createItem(ItemDto.builder()
+                .name("дрель")
+                .description("мощная дрель")
+                .available(true)
+                .build(), owner);
+    }
+
+    @Test
+    void getChangesReturnsOnlyOwnChanges() {
+        SyncDto ownerChanges = syncService.getChanges(owner.getId(), 0L, 100);
+        assertEquals(1, ownerChanges.getItems().size());
+        assertEquals(item.getName(), ownerChanges.getItems().get(0).getName());
+        assertTrue(ownerChanges.getBookings().isEmpty());
+        assertFalse(ownerChanges.isHasMore());
+
+        SyncDto bookerChanges = syncService.getChanges(booker.getId(), 0L, 100);
+        assertTrue(bookerChanges.getItems().isEmpty());
+        assertEquals(0L, bookerChanges.getCursor());
+    }
+
+    @Test
+    void getChangesSinceCursorReturnsDelta() {
+        Long cursor = syncService.getChanges(owner.getId(), 0L, 100).getCursor();
+        Booking booking = bookingService.createBooking(BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build(), booker);
+        bookingService.changeStatus(booking.getId(), owner.getId(), true);
+        Comment comment = itemService.createComment(CommentDtoRequest.builder()
+                .text("отличная дрель")
+                .build(), booker, item.getId());
+
+        SyncDto delta = syncService.getChanges(owner.getId(), cursor, 100);
+        assertTrue(delta.getItems().isEmpty());
+        assertEquals(1, delta.getBookings().size(), "изменения одного бронирования должны схлопываться");
+        assertEquals(booking.getId(), delta.getBookings().get(0).getId());
+        assertEquals(comment.getId(), delta.getComments().get(item.getId()).get(0).getId());
+        assertTrue(delta.getCursor() > cursor);
+        assertTrue(syncService.getChanges(owner.getId(), delta.getCursor(), 100).getBookings().isEmpty());
+
+        SyncDto bookerDelta = syncService.getChanges(booker.getId(), 0L, 100);
+        assertEquals(1, bookerDelta.getBookings().size());
+        assertEquals("new", bookerDelta.getComments().get(item.getId()).get(0).getAuthorName());
+    }
+
+    @Test
+    void getChangesLimitsPage() {
+        itemService.createItem(ItemDto.builder()
+                .name("пила")
+                .description("пила")
+                .available(true)
+                .build(), owner);
+
+        SyncDto firstPage = syncService.getChanges(owner.getId(), 0L, 1);
+        assertTrue(firstPage.isHasMore());
+        assertEquals(item.getId(), firstPage.getItems().get(0).getId());
+        SyncDto secondPage = syncService.getChanges(owner.getId(), firstPage.getCursor(), 1);
+        assertFalse(secondPage.isHasMore());
+        assertEquals(1, secondPage.getItems().size());
+        assertNotEquals(item.getId(), secondPage.getItems().get(0).getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void getChangesDoesNotSkipChangesOfInterleavedTransactions() {
+        Item saw = itemService.createItem(ItemDto.builder()
+                .name("пила")
+                .description("пила")
+                .available(true)
+                .build(), owner);
+        Long cursor = syncService.getChanges(owner.getId(), 0L, 100).getCursor();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                changeLog.record(ChangeType.ITEM, item.getId(), owner.getId());
+                recorded.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(recorded.await(5, TimeUnit.SECONDS));
+            transaction.executeWithoutResult(status -> changeLog.record(ChangeType.ITEM, saw.getId(), owner.getId()));
+
+            SyncDto afterSecond = syncService.getChanges(owner.getId(), cursor, 100);
+            assertEquals(1, afterSecond.getItems().size());
+            assertEquals(saw.getId(), afterSecond.getItems().get(0).getId());
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            SyncDto afterFirst = syncService.getChanges(owner.getId(), afterSecond.getCursor(), 100);
+            assertEquals(1, afterFirst.getItems().size(), "изменение транзакции, начатой раньше, не должно теряться");
+            assertEquals(item.getId(), afterFirst.getItems().get(0).getId());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @SneakyThrows
+    private static void awaitQuietly(CountDownLatch latch) {
+        latch.await(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.user;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import ru.practicum.shareit.exceptions.DataNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserArgumentResolverTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+
+    @Mock
+    private UserCache userCache;
+
+    private CurrentUserArgumentResolver resolver;
+    private MethodParameter parameter;
+    private MockHttpServletRequest request;
+    private User user;
+
+    @BeforeEach
+    @SneakyThrows
+    void setUp() {
+        resolver = new CurrentUserArgumentResolver(userCache);
+        parameter = new MethodParameter(CurrentUserArgumentResolverTest.class
+                .getDeclaredMethod("handler", CurrentUser.class, Long.class), 0);
+        request = new MockHttpServletRequest();
+        user = User.builder()
+                .id(1L)
+                .name("Ivan")
+                .email("ivan@yandex.ru")
+                .build();
+    }
+
+    @Test
+    @SneakyThrows
+    void supportsOnlyCurrentUser() {
+        assertTrue(resolver.supportsParameter(parameter));
+        assertFalse(resolver.supportsParameter(new MethodParameter(parameter.getMethod(), 1)));
+    }
+
+    @Test
+    @SneakyThrows
+    void getIdChecksExistenceOncePerRequest() {
+        request.addHeader(HEADER, "1");
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        when(userCache.exists(1L)).thenReturn(true);
+
+        CurrentUser first = resolver.resolveArgument(parameter, null, webRequest, null);
+        CurrentUser second = resolver.resolveArgument(parameter, null, webRequest, null);
+        assertSame(first, second, "пользователь должен определяться один раз за запрос");
+        assertEquals(user.getId(), first.getId());
+        assertEquals(user.getId(), second.getId());
+        verify(userCache, times(1)).exists(1L);
+        verify(userCache, never()).get(anyLong());
+    }
+
+    @Test
+    @SneakyThrows
+    void getUserLoadsUserOnceWithoutExistenceCheck() {
+        request.addHeader(HEADER, "1");
+        when(userCache.get(1L)).thenReturn(Optional.of(user));
+
+        CurrentUser currentUser = resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+        assertEquals(user, currentUser.getUser());
+        assertEquals(user, currentUser.getUser());
+        assertEquals(user.getId(), currentUser.getId());
+        verify(userCache, times(1)).get(1L);
+        verify(userCache, never()).exists(anyLong());
+    }
+
+    @Test
+    void resolveArgumentMissingHeaderException() {
+        assertThrows(MissingRequestHeaderException.class,
+                () -> resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null));
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void resolveArgumentNotNumberException() {
+        request.addHeader(HEADER, "p");
+        assertThrows(MethodArgumentTypeMismatchException.class,
+                () -> resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null));
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @SneakyThrows
+    void resolveArgumentUserDataNotFoundException() {
+        request.addHeader(HEADER, "222");
+        when(userCache.exists(222L)).thenReturn(false);
+        when(userCache.get(222L)).thenReturn(Optional.empty());
+
+        CurrentUser currentUser = resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+        assertThrows(DataNotFoundException.class, currentUser::getId);
+        assertThrows(DataNotFoundException.class, currentUser::getUser);
+    }
+
+    @SuppressWarnings("unused")
+    private void handler(CurrentUser currentUser, Long id) {
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache cache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserCache(userRepository, 1);
+        user = User.builder()
+                .id(1L)
+                .name("Ivan")
+                .email("ivan@yandex.ru")
+                .build();
+    }
+
+    @Test
+    void getReadsThroughOnce() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertEquals(user, cache.get(user.getId()).orElseThrow());
+        assertEquals(user, cache.get(user.getId()).orElseThrow());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void getReturnsCopy() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        cache.get(user.getId()).orElseThrow().setName("изменено");
+        assertEquals("Ivan", cache.get(user.getId()).orElseThrow().getName(), "кэш отдал общий экземпляр");
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsed() {
+        User other = User.builder()
+                .id(2L)
+                .name("Anton")
+                .email("anton@yandex.ru")
+                .build();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findById(other.getId())).thenReturn(Optional.of(other));
+
+        cache.get(user.getId());
+        cache.get(other.getId());
+        cache.get(user.getId());
+        assertEquals(1, cache.size());
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void existsUsesLoadedIdsWithoutQuery() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 5L));
+        cache.load();
+
+        assertTrue(cache.exists(5L));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void existsFallsBackToRepository() {
+        when(userRepository.existsById(7L)).thenReturn(false);
+        when(userRepository.existsById(8L)).thenReturn(true);
+
+        assertFalse(cache.exists(7L));
+        assertTrue(cache.exists(8L));
+        assertTrue(cache.exists(8L));
+        verify(userRepository, times(1)).existsById(8L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void putServesFromCache() {
+        cache.put(user);
+
+        assertTrue(cache.exists(user.getId()));
+        assertEquals(user, cache.get(user.getId()).orElseThrow());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void evictReloadsOnNextGet() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        cache.put(user);
+
+        cache.evict(user.getId());
+        cache.get(user.getId());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void getDoesNotStoreRowReadBeforeConcurrentEvict() {
+        User renamed = User.builder()
+                .id(user.getId())
+                .name("Petr")
+                .email(user.getEmail())
+                .build();
+        when(userRepository.findById(user.getId()))
+                .thenAnswer(invocation -> {
+                    cache.evict(user.getId());
+                    return Optional.of(user);
+                })
+                .thenReturn(Optional.of(renamed));
+
+        assertEquals("Ivan", cache.get(user.getId()).orElseThrow().getName());
+        assertEquals("Petr", cache.get(user.getId()).orElseThrow().getName(), "кэш сохранил устаревшую запись");
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void getDoesNotMarkIdDeletedDuringLoad() {
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> {
+            cache.remove(user.getId());
+            return Optional.of(user);
+        });
+        when(userRepository.existsById(user.getId())).thenReturn(false);
+
+        cache.get(user.getId());
+        assertFalse(cache.exists(user.getId()), "удалённый пользователь остался в индексе идентификаторов");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void existsDoesNotMarkIdDeletedDuringLookup() {
+        when(userRepository.existsById(user.getId()))
+                .thenAnswer(invocation -> {
+                    cache.remove(user.getId());
+                    return true;
+                })
+                .thenReturn(false);
+
+        assertTrue(cache.exists(user.getId()));
+        assertFalse(cache.exists(user.getId()), "удалённый пользователь остался в индексе идентификаторов");
+        verify(userRepository, times(2)).existsById(user.getId());
+    }
+
+    @Test
+    void removeForgetsId() {
+        when(userRepository.existsById(user.getId())).thenReturn(false);
+        cache.put(user);
+
+        cache.remove(user.getId());
+        assertFalse(cache.exists(user.getId()));
+    }
+
+    @Test
+    void bindToExposesHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        cache.get(user.getId());
+        cache.get(user.getId());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
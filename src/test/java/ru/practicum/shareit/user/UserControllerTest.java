@@ -13,7 +13,6 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -31,6 +30,8 @@ class UserControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private UserService userService;
+    @MockBean
+    private UserCache userCache;
 
     private UserDto userDto;
     private UserDto userDto1;
@@ -130,8 +131,7 @@ class UserControllerTest {
     void getAllUser() {
         List<UserDto> users = List.of(userDto, userDto1);
 
-        when(userService.getAllUsers())
-                .thenReturn(users.stream().map(UserMapper::toUser).collect(Collectors.toList()));
+        when(userService.getAllUsers()).thenReturn(users);
         mockMvc.perform(get("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
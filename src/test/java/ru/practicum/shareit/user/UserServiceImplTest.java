@@ -1,13 +1,14 @@
 package ru.practicum.shareit.user;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,7 +19,6 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
-    @InjectMocks
     private UserServiceImpl userService;
 
     @Mock
@@ -27,19 +27,20 @@ class UserServiceImplTest {
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
 
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, new UserCache(userRepository, 100));
+    }
+
     @Test
     void getAllUsers() {
-        Long userId = 1L;
-        User oldUser = new User();
-        oldUser.setEmail("old@yandex.ru");
-        oldUser.setName("Ivan");
-        oldUser.setId(userId);
-        List<User> userList = new ArrayList<>();
-        userList.add(oldUser);
-        when(userRepository.findAll()).thenReturn(userList);
+        List<UserDto> userList = new ArrayList<>();
+        userList.add(new UserDto(1L, "Ivan", "old@yandex.ru"));
+        when(userRepository.findAllDto()).thenReturn(userList);
         int sizeListUsers = userService.getAllUsers().size();
         assertEquals(1, sizeListUsers, "некорректная работа.");
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllDto();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
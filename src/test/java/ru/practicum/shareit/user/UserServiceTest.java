@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collection;
 
@@ -34,7 +35,7 @@ class UserServiceTest {
     void getAllUsers() {
         userService.createUser(user);
         userService.createUser(user1);
-        Collection<User> users = userService.getAllUsers();
+        Collection<UserDto> users = userService.getAllUsers();
         assertEquals(2, users.size());
     }
 
@@ -65,8 +66,8 @@ class UserServiceTest {
         User user2 = userService.createUser(user);
         User user3 = userService.createUser(user1);
         userService.deleteUser(user2.getId());
-        Collection<User> users = userService.getAllUsers();
-        assertTrue(users.contains(user3));
-        assertFalse(users.contains(user2));
+        Collection<UserDto> users = userService.getAllUsers();
+        assertTrue(users.contains(UserMapper.toDto(user3)));
+        assertFalse(users.contains(UserMapper.toDto(user2)));
     }
 }